@@ -0,0 +1,278 @@
+// ******************************************************* //
+// Common part of the max-flow algorithms working on
+// a FlowNetwork
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides the results of a minimum st-cut computed on the residual network
+ * ({@link FlowNetwork}) of a simple directed graph, with the same surface as
+ * {@link MinCut}. The subclasses only give the max-flow algorithm.
+ *
+ * They are also {@link MaxFlowSolver}s : built without a graph, they are
+ * given one by vertexSetCutMin(g, s, t, capacity) for every cut.
+ *
+ * The set of vertices of the min cut is the set of vertices reachable from s
+ * in the residual network of the max flow, so it is the same set as the one
+ * returned by MinCut whatever the algorithm used.
+ *
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public abstract class AbstractMinCut implements MaxFlowSolver {
+    DiGraph g_;
+    Vertex s_;
+    Vertex t_;
+
+    /**
+     * The constant for infinity.
+     */
+    public double INFINITY = Double.MAX_VALUE;
+
+    /**
+     * The constant to read the capacity on edges.
+     */
+    public String CAPACITY = "capacity";
+
+    FlowNetwork network;
+    boolean[] side;
+    // the copy of the sides filled by the caller's arrays, never handed out
+    private boolean[] sideCopy = new boolean[0];
+    private double cutValue = 0.0;
+    private ArcSet cutArc;
+    private VertexSet cutNode;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public AbstractMinCut(DiGraph g, Vertex s, Vertex t) {
+        g_ = g;
+        s_ = s;
+        t_ = t;
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public AbstractMinCut() {
+    }
+
+    /**
+     * Computes the min cut of a graph and returns its set of vertices.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param capacity the name of the capacities on the arcs
+     * @return a vertex set.
+     */
+    public VertexSet vertexSetCutMin(DiGraph g, Vertex s, Vertex t,
+        String capacity) {
+        g_ = g;
+        s_ = s;
+        t_ = t;
+        CAPACITY = capacity;
+        run();
+
+        return vertexSetCutMin();
+    }
+
+    /**
+     * Computes the min cut of a graph and returns its set of vertices, the
+     * capacities being bounded by the given infinity. INFINITY is set to it
+     * for this run only : its value is given back afterwards, even when the
+     * run fails.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param capacity the name of the capacities on the arcs
+     * @param infinity the bound on the capacities
+     * @return a vertex set.
+     */
+    public VertexSet vertexSetCutMin(DiGraph g, Vertex s, Vertex t,
+        String capacity, double infinity) {
+        double bound = INFINITY;
+
+        INFINITY = infinity;
+
+        try {
+            return vertexSetCutMin(g, s, t, capacity);
+        } finally {
+            INFINITY = bound;
+        }
+    }
+
+    /**
+     * Gives the parameters of this solver to a new one.
+     *
+     * @param result the new solver
+     * @return the new solver
+     */
+    MaxFlowSolver copyTo(AbstractMinCut result) {
+        result.INFINITY = INFINITY;
+        result.CAPACITY = CAPACITY;
+
+        return result;
+    }
+
+    /**
+     * Run the algorithm.
+     */
+    public void run() {
+        sourceSide(buildNetwork());
+    }
+
+    /**
+     * Computes the max flow of a residual network built by the caller, for
+     * instance from arrays, and returns the source side of the min cut. The
+     * results of the methods below are then the ones of this network.
+     *
+     * @param net the residual network
+     * @return an array of booleans indexed by the vertices
+     */
+    public boolean[] sourceSide(FlowNetwork net) {
+        network = net;
+        augment(network);
+        side = cutSide(network);
+        cutValue = 0.0;
+        cutArc = null;
+        cutNode = null;
+
+        return side;
+    }
+
+    /**
+     * Computes the max flow of a residual network built by the caller, as
+     * sourceSide(net), and stores the source side of the min cut in side.
+     * The solver keeps a copy of it for the methods below, not the array of
+     * the caller. Nothing is allocated by the algorithms which keep their work arrays
+     * from one network to the next (CSRMinCut, BKMinCut and their
+     * subclasses) once the arrays are large enough.
+     *
+     * @param net the residual network
+     * @param side the array to fill, of length at least net.size()
+     * @param queue a work array of length at least net.size()
+     */
+    public void sourceSide(FlowNetwork net, boolean[] side, int[] queue) {
+        network = net;
+        augment(network);
+        cutSide(network, side, queue);
+        if (sideCopy.length < net.n) {
+            sideCopy = new boolean[net.n];
+        }
+        System.arraycopy(side, 0, sideCopy, 0, net.n);
+        this.side = sideCopy;
+        cutValue = 0.0;
+        cutArc = null;
+        cutNode = null;
+    }
+
+    /**
+     * Returns the residual network to work on, by default a new one whose
+     * flow equals 0.
+     *
+     * @return the residual network
+     */
+    FlowNetwork buildNetwork() {
+        return new FlowNetwork(g_, s_, t_, CAPACITY, INFINITY);
+    }
+
+    /**
+     * Computes a max flow in the network, starting from the flow it holds.
+     *
+     * @param net the residual network
+     */
+    abstract void augment(FlowNetwork net);
+
+    /**
+     * Returns the source side of the min cut once the algorithm is done,
+     * the vertices reachable from s in the residual network.
+     *
+     * @param net the residual network
+     * @return an array of booleans indexed by the vertices
+     */
+    boolean[] cutSide(FlowNetwork net) {
+        return net.sourceSide();
+    }
+
+    /**
+     * Stores the source side of the min cut in side, as cutSide(net).
+     *
+     * @param net the residual network
+     * @param side the array to fill
+     * @param queue a work array
+     */
+    void cutSide(FlowNetwork net, boolean[] side, int[] queue) {
+        net.sourceSide(side, queue);
+    }
+
+    /**
+     * Returns the set of vertices of the min cut.
+     *
+     * @return a vertex set.
+     */
+    public VertexSet vertexSetCutMin() {
+        if (cutNode == null) {
+            cutNode = network.vertexSet(side);
+        }
+
+        return cutNode;
+    }
+
+    /**
+     * Returns the set of arcs of the min cut.
+     *
+     * @return an arc set.
+     */
+    public ArcSet arcSetCutMin() {
+        if (cutArc == null) {
+            cutArc = network.arcSet(side);
+
+            Iterator itarcs = cutArc.iterator();
+
+            while (itarcs.hasNext()) {
+                Arc arcout = (Arc) itarcs.next();
+                cutValue = cutValue + arcout.getDouValue(CAPACITY);
+            }
+        }
+
+        return cutArc;
+    }
+
+    /**
+     * Returns the value of the min cut.
+     *
+     * @return a double
+     */
+    public double minCutValue() {
+        arcSetCutMin();
+
+        return cutValue;
+    }
+
+    /**
+     * Returns the value of the max flow.
+     *
+     * @return a double
+     */
+    public double maxFlowValue() {
+        return network.flowValue();
+    }
+}
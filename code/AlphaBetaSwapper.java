@@ -0,0 +1,263 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.MaxFlowSolver;
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.Graph;
+
+import java.util.BitSet;
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>Class	: AlphaBetaSwapper
+ * <p>Purpose	: This class runs the Alpha-Beta swap algorithm, with the same
+ * interface and settings as {@link AlphaExpander}.
+ * <p>Steps:<br/>
+ * <ol>
+ * <li>Start with an arbitrary assignment of labels for all the nodes</li>
+ * <li>Vary the pair \alpha, \beta over the pairs of labels, and let the nodes
+ * labelled \alpha or \beta swap their labels, minimizing the energies using
+ * Graph-cut</li>
+ * <li>Repeat till lesser energy assignments are possible</li>
+ * <li>Return the configuration with least energy</li>
+ * </ol>
+ * <p>The graph of a move only has the nodes labelled \alpha or \beta, the
+ * edges to the other nodes being added to the energies of their ends. A move
+ * is optimal when the energies of the edges are semi-metric (no triangle
+ * inequality is needed, unlike alpha expansion).
+ */
+public class AlphaBetaSwapper extends AlphaExpander {
+
+	/**
+	 * <p>Method 	: AlphaBetaSwapper
+	 * <p>Purpose	: Creates a swapper using the max-flow solver named by
+	 * the system property {@link #MAX_FLOW_PROPERTY}
+	 */
+	public AlphaBetaSwapper() {
+		super();
+	}
+
+	/**
+	 * <p>Method 	: AlphaBetaSwapper
+	 * <p>Purpose	: Creates a swapper using the given max-flow solver
+	 * <p>@param maxFlowSolver
+	 */
+	public AlphaBetaSwapper(MaxFlowSolver maxFlowSolver) {
+		super(maxFlowSolver);
+	}
+
+	public AlphaExpander copy() {
+		return copyTo(new AlphaBetaSwapper(m_maxFlowSolver.copy()));
+	}
+
+	/**
+	 * <p>Method 	: getSwapGraph
+	 * <p>Purpose	: Builds the binary MRF graph of the move of \alpha and
+	 * \beta : its nodes are the nodes labelled \alpha or \beta which have
+	 * both labels, numbered from 0 in the order of swapNodes, the first energy
+	 * being the one of \alpha and the second the one of \beta.
+	 * <p>@param mrfGraph
+	 * <p>@param currentAssignment
+	 * <p>@param alpha
+	 * <p>@param beta
+	 * <p>@param swapNodes the list filled with the nodes of the graph
+	 * <p>@return MRFGraph
+	 */
+	private MRFGraph getSwapGraph(MRFGraph mrfGraph, Vector<Integer> currentAssignment, int alpha, int beta, Vector<MRFNode> swapNodes) {
+		MRFGraph binaryMRFGraph = new MRFGraph();
+		Vector<MRFNode> nodes = mrfGraph.getNodes();
+		Vector<MRFNode> binaryNodeVector = new Vector<MRFNode>();
+		Vector<MRFEdge> swapEdges = new Vector<MRFEdge>();
+		double[] binaryEnergies = null;
+		MRFEdge binaryEdge = null;
+		MRFNode binaryNode = null;
+		int[] localIndex = new int[nodes.size()];
+		double[] alphaEnergy = null;
+		double[] betaEnergy = null;
+		int label = 0;
+		int first = 0;
+		int second = 0;
+		int firstLabel = 0;
+		int secondLabel = 0;
+
+		for (MRFNode node : nodes) {
+			label = currentAssignment.elementAt(node.getNodeIndex());
+			if ((label == alpha || label == beta) && node.hasLabel(alpha) && node.hasLabel(beta)) {
+				localIndex[node.getNodeIndex()] = swapNodes.size();
+				swapNodes.add(node);
+			} else {
+				localIndex[node.getNodeIndex()] = -1;
+			}
+		}
+		alphaEnergy = new double[swapNodes.size()];
+		betaEnergy = new double[swapNodes.size()];
+		for (int i = 0; i < swapNodes.size(); i++) {
+			alphaEnergy[i] = swapNodes.elementAt(i).getEnergy(alpha);
+			betaEnergy[i] = swapNodes.elementAt(i).getEnergy(beta);
+		}
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			first = localIndex[edge.getFirstNode().getNodeIndex()];
+			second = localIndex[edge.getSecondNode().getNodeIndex()];
+			if (first >= 0 && second >= 0) {
+				swapEdges.add(edge);
+			} else if (first >= 0) {
+				//The other end keeps its label
+				secondLabel = currentAssignment.elementAt(edge.getSecondNode().getNodeIndex());
+				alphaEnergy[first] += edge.getEnergy(alpha, secondLabel);
+				betaEnergy[first] += edge.getEnergy(beta, secondLabel);
+			} else if (second >= 0) {
+				firstLabel = currentAssignment.elementAt(edge.getFirstNode().getNodeIndex());
+				alphaEnergy[second] += edge.getEnergy(firstLabel, alpha);
+				betaEnergy[second] += edge.getEnergy(firstLabel, beta);
+			}
+		}
+		for (int i = 0; i < swapNodes.size(); i++) {
+			binaryEnergies = new double[] {alphaEnergy[i], betaEnergy[i]};
+			binaryNode = new MRFNode(i, binaryEnergies, null);
+			binaryNode.setEnergies(binaryEnergies);
+			binaryMRFGraph.addVertex(binaryNode);
+			binaryNodeVector.add(binaryNode);
+		}
+		for (MRFEdge edge : swapEdges) {
+			binaryEnergies = new double[] {edge.getEnergy(alpha, alpha), edge.getEnergy(alpha, beta), edge.getEnergy(beta, alpha), edge.getEnergy(beta, beta)};
+			binaryEdge = new MRFEdge(binaryNodeVector.elementAt(localIndex[edge.getFirstNode().getNodeIndex()]), binaryNodeVector.elementAt(localIndex[edge.getSecondNode().getNodeIndex()]), binaryEnergies);
+			binaryEdge.setEnergies(binaryEnergies);
+			binaryMRFGraph.addEdge(binaryEdge);
+		}
+		return binaryMRFGraph;
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Applies steps of alpha-beta swap algorithm on
+	 * given Undirected graph, stopping as
+	 * {@link AlphaExpander#expand(MRFGraph, Vector, int, long, double, int, AtomicBoolean)}
+	 * does, a sweep being made of the moves of all pairs of labels.
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignment
+	 * <p>@param maxAlpha
+	 * <p>@param deadline
+	 * <p>@param tolerance
+	 * <p>@param maxSweeps
+	 * <p>@param cancelled
+	 * <p>@param interruptible
+	 * <p>@return ExpansionResult
+	 */
+	ExpansionResult expand(MRFGraph mrfGraph, Vector<Integer> startAssignment, int maxAlpha, long deadline, double tolerance, int maxSweeps, AtomicBoolean cancelled, boolean interruptible) {
+		Vector<Integer> iterationLastAssignment = new Vector<Integer>();
+		Vector<Integer> currentAssignment = new Vector<Integer>();
+		Vector<Integer> newAssignment = new Vector<Integer>();
+		Vector<MRFNode> swapNodes = new Vector<MRFNode>();
+		CompiledMRF mrf = new CompiledMRF(mrfGraph);
+		double currentScore = mrf.getScore(getLabels(startAssignment));
+		double newScore = 0.0;
+		double sweepScore = 0.0;
+		int label = 0;
+		int newLabel = 0;
+		int changedNodes = 0;
+		int sweeps = 0;
+		MRFGraph binaryMRFGraph = null;
+		boolean change = true;
+		BitSet sourceSide = null;
+		Graph graph = null;
+		ExpansionResult.Status status = ExpansionResult.Status.CONVERGED;
+
+		currentAssignment.addAll(startAssignment);
+
+		//Swap until better assignments are found
+		sweep:
+		while (change) {
+			change = false;
+			sweeps++;
+			sweepScore = currentScore;
+			for (int alpha = 0; alpha < maxAlpha; alpha++) {
+				for (int beta = alpha + 1; beta < maxAlpha; beta++) {
+					if (isStopped(deadline, cancelled, interruptible)) {
+						status = getStopStatus(cancelled, interruptible);
+						break sweep;
+					}
+					swapNodes.clear();
+					binaryMRFGraph = getSwapGraph(mrfGraph, currentAssignment, alpha, beta, swapNodes);
+					if (swapNodes.isEmpty()) {
+						continue;
+					}
+					if (binaryMRFGraph.getNodes().size() <= m_enumerationThreshold) {
+						//Small graph : no S-T graph
+						sourceSide = MoveEnumerator.solve(binaryMRFGraph);
+						binaryMRFGraph.clear();
+					} else {
+						graph = createSTGraph(binaryMRFGraph);
+						binaryMRFGraph.clear();
+						sourceSide = getSTMinCut(graph);
+						freeMemory(graph);
+					}
+					//The nodes on the side of S take \alpha, the others \beta
+					newAssignment.clear();
+					newAssignment.addAll(currentAssignment);
+					newScore = currentScore;
+					changedNodes = 0;
+					for (int i = 0; i < swapNodes.size(); i++) {
+						label = currentAssignment.elementAt(swapNodes.elementAt(i).getNodeIndex());
+						newLabel = sourceSide.get(i) ? alpha : beta;
+						if (newLabel != label) {
+							newAssignment.setElementAt(newLabel, swapNodes.elementAt(i).getNodeIndex());
+							newScore += getScoreChange(mrf, swapNodes.elementAt(i).getNodeIndex(), label, newLabel);
+							changedNodes++;
+						}
+					}
+					if (changedNodes > 0 && currentScore >= newScore) {
+						currentAssignment.clear();
+						currentScore = newScore;
+						currentAssignment.addAll(newAssignment);
+						change = true;
+					}
+				}
+			}
+			if (iterationLastAssignment.equals(newAssignment)) {
+				break;
+			}
+			iterationLastAssignment.clear();
+			iterationLastAssignment.addAll(newAssignment);
+			if (change) {
+				status = getSweepStatus(sweeps, maxSweeps, sweepScore, currentScore, tolerance);
+				if (status != ExpansionResult.Status.CONVERGED) {
+					break;
+				}
+			}
+		}
+		iterationLastAssignment.clear();
+		newAssignment.clear();
+		swapNodes.clear();
+		return new ExpansionResult(currentAssignment, currentScore, sweeps, status);
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Applies steps of alpha-beta swap algorithm on several
+	 * independent graphs, one after the other.
+	 * <p>@param mrfGraphs
+	 * <p>@param startAssignments
+	 * <p>@param maxAlphas
+	 * <p>@return Vector<Vector<Integer>>
+	 */
+	public Vector<Vector<Integer>> expand(Vector<MRFGraph> mrfGraphs, Vector<Vector<Integer>> startAssignments, Vector<Integer> maxAlphas) {
+		Vector<Vector<Integer>> assignments = new Vector<Vector<Integer>>();
+		for (int i = 0; i < mrfGraphs.size(); i++) {
+			assignments.add(expand(mrfGraphs.elementAt(i), startAssignments.elementAt(i), maxAlphas.elementAt(i)));
+		}
+		return assignments;
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Not supported : the moves of a compiled graph are alpha
+	 * expansions, and the swaps are only done on an {@link MRFGraph}
+	 * <p>@param mrf
+	 * <p>@param labels
+	 * <p>@param maxAlpha
+	 * <p>@return double
+	 * <p>@throws UnsupportedOperationException always
+	 */
+	public double expand(CompiledMRF mrf, int[] labels, int maxAlpha) {
+		throw new UnsupportedOperationException("alpha-beta swap of a compiled graph");
+	}
+}
@@ -1,5 +1,9 @@
 package in.ac.iitb.cfilt.context.helper;
 
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.AbstractMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.EdmondsKarpMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.graph.BatchSTMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.MaxFlowSolver;
 import in.ac.iitb.cfilt.context.mascoptLib.graphs.Edge;
 import in.ac.iitb.cfilt.context.mascoptLib.graphs.EdgeSet;
 import in.ac.iitb.cfilt.context.mascoptLib.graphs.Graph;
@@ -7,8 +11,20 @@ import in.ac.iitb.cfilt.context.mascoptLib.graphs.Vertex;
 import in.ac.iitb.cfilt.context.mascoptLib.graphs.VertexSet;
 
 import java.io.FileNotFoundException;
-import java.util.Iterator;
+import java.util.BitSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.ServiceLoader;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * <p>Class	: AlphaExpander
@@ -34,12 +50,381 @@ public class AlphaExpander {
 	 * This field stores the Special vertex T (sink node)
 	 */
 	Vertex m_TVertex = new Vertex();
+	/**
+	 * This field stores the max-flow solver used for the cuts
+	 */
+	MaxFlowSolver m_maxFlowSolver = null;
+	/**
+	 * This field stores the vertices of the MRF nodes, kept from one S-T graph
+	 * to the next so that a solver keeping its flow recognizes the same graph
+	 */
+	Vector<Vertex> m_nodeVertices = new Vector<Vertex>();
+	/**
+	 * This field stores the number of nodes up to which the binary moves are
+	 * solved by {@link MoveEnumerator} instead of a max-flow solver, 0 (never)
+	 * by default
+	 */
+	int m_enumerationThreshold = Math.min(Integer.getInteger(ENUMERATION_PROPERTY, 0), MoveEnumerator.MAX_SIZE);
+	/**
+	 * This field stores the number of threads expanding the connected
+	 * components of a graph in {@link #expandComponents(MRFGraph, Vector, int)}
+	 */
+	int m_threads = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+	/**
+	 * This field stores the executor expanding the connected components, null
+	 * to use the pool of m_threads threads of this expander
+	 */
+	ExecutorService m_executor = null;
+	/**
+	 * This field stores whether the moves of a sweep are solved in advance
+	 * by m_threads threads, see {@link #setParallelSweep(boolean)}
+	 */
+	boolean m_parallelSweep = Boolean.getBoolean(PARALLEL_SWEEP_PROPERTY);
+	/**
+	 * This field stores the order in which a {@link LabelScheduler} gives the
+	 * labels to expand, null to sweep all the labels in turn
+	 */
+	LabelScheduler.Order m_labelOrder = getLabelOrder(System.getProperty(LABEL_ORDER_PROPERTY));
+	/**
+	 * This field stores the arrays of the moves of
+	 * {@link #expand(CompiledMRF, int[], int)}, kept from one expansion to
+	 * the next, null until the first one
+	 */
+	AlphaMove m_alphaMove = null;
+	/**
+	 * This field stores the pool of m_threads daemon threads used when no
+	 * executor is set, created by the first expansion which needs it and
+	 * kept until {@link #close()}
+	 */
+	private ExecutorService m_pool = null;
+	/**
+	 * This field stores the copies of this expander handed out to the tasks
+	 * of the threads and given back by them, see {@link #takeCopy()}
+	 */
+	private final ConcurrentLinkedQueue<AlphaExpander> m_copies = new ConcurrentLinkedQueue<AlphaExpander>();
+	/**
+	 * This field stores the number of changes of the settings given to the
+	 * copies, so that a copy made before a change is not used again
+	 */
+	int m_version = 0;
+
+	/**
+	 * The system property giving the name of the max-flow solver used by
+	 * default, {@link EdmondsKarpMinCut#NAME} if it is not set
+	 */
+	public static final String MAX_FLOW_PROPERTY = "alpha.maxflow";
+
+	/**
+	 * The system property giving the default number of nodes up to which
+	 * the binary moves are enumerated, 0 (never) if it is not set
+	 */
+	public static final String ENUMERATION_PROPERTY = "alpha.enumeration";
+
+	/**
+	 * The system property giving the default number of threads expanding the
+	 * connected components, the number of processors if it is not set
+	 */
+	public static final String THREADS_PROPERTY = "alpha.threads";
+
+	/**
+	 * The system property turning the parallel sweeps on by default
+	 */
+	public static final String PARALLEL_SWEEP_PROPERTY = "alpha.parallelSweep";
+
+	/**
+	 * The system property giving the default order of the labels of a
+	 * {@link LabelScheduler} (FIXED, FREQUENCY, GAIN or RANDOM), the labels
+	 * being swept in turn if it is not set
+	 */
+	public static final String LABEL_ORDER_PROPERTY = "alpha.labelOrder";
+
+	/**
+	 * The deadline of an expansion which has none
+	 */
+	public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+	/**
+	 * <p>Method 	: AlphaExpander
+	 * <p>Purpose	: Creates an expander using the max-flow solver named by
+	 * the system property {@link #MAX_FLOW_PROPERTY}
+	 */
+	public AlphaExpander() {
+		this(findMaxFlowSolver(System.getProperty(MAX_FLOW_PROPERTY, EdmondsKarpMinCut.NAME)));
+	}
+
+	/**
+	 * <p>Method 	: AlphaExpander
+	 * <p>Purpose	: Creates an expander using the given max-flow solver
+	 * <p>@param maxFlowSolver
+	 */
+	public AlphaExpander(MaxFlowSolver maxFlowSolver) {
+		m_maxFlowSolver = maxFlowSolver;
+	}
+
+	/**
+	 * <p>Method 	: copy
+	 * <p>Purpose	: Returns a new expander with the same settings and a copy
+	 * of the max-flow solver, which can run at the same time as this one
+	 * <p>@return AlphaExpander
+	 */
+	public AlphaExpander copy() {
+		return copyTo(new AlphaExpander(m_maxFlowSolver.copy()));
+	}
+
+	/**
+	 * <p>Method 	: copyTo
+	 * <p>Purpose	: Gives the settings of this expander to a new one
+	 * <p>@param expander
+	 * <p>@return AlphaExpander
+	 */
+	AlphaExpander copyTo(AlphaExpander expander) {
+		expander.m_enumerationThreshold = m_enumerationThreshold;
+		expander.m_threads = m_threads;
+		expander.m_executor = m_executor;
+		expander.m_parallelSweep = m_parallelSweep;
+		expander.m_labelOrder = m_labelOrder;
+		expander.m_version = m_version;
+		return expander;
+	}
+
+	/**
+	 * <p>Method 	: takeCopy
+	 * <p>Purpose	: Returns a copy of this expander for a task running on a
+	 * thread of the pool, which gives it back by {@link #giveBack(AlphaExpander)}
+	 * once done. The copies are kept from one expansion to the next, a new
+	 * one is only made when all of them are in use. A copy does not sweep in
+	 * parallel, being already on a thread of the pool.
+	 * <p>@return AlphaExpander
+	 */
+	AlphaExpander takeCopy() {
+		AlphaExpander expander;
+		while ((expander = m_copies.poll()) != null) {
+			if (expander.m_version == m_version) {
+				return expander;
+			}
+		}
+		expander = copy();
+		expander.m_parallelSweep = false;
+		return expander;
+	}
+
+	/**
+	 * <p>Method 	: giveBack
+	 * <p>Purpose	: Gives back a copy returned by {@link #takeCopy()}
+	 * <p>@param expander void
+	 */
+	void giveBack(AlphaExpander expander) {
+		if (expander.m_version == m_version) {
+			m_copies.offer(expander);
+		}
+	}
+
+	/**
+	 * <p>Method 	: getPool
+	 * <p>Purpose	: Returns the executor if one is set, else the pool of
+	 * m_threads daemon threads of this expander, which is created on the
+	 * first call
+	 * <p>@return ExecutorService
+	 */
+	synchronized ExecutorService getPool() {
+		if (m_executor != null) {
+			return m_executor;
+		}
+		if (m_pool == null) {
+			m_pool = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return m_pool;
+	}
+
+	/**
+	 * <p>Method 	: close
+	 * <p>Purpose	: Shuts down the pool of threads of this expander and
+	 * drops its copies. The expander can still be used, a new pool being
+	 * created when needed.
+	 */
+	public synchronized void close() {
+		if (m_pool != null) {
+			m_pool.shutdown();
+			m_pool = null;
+		}
+		m_copies.clear();
+	}
 
 	protected void finalize() {
+		close();
 		m_SVertex.free();
 		m_TVertex.free();
 	}
 	
+	/**
+	 * <p>Method 	: findMaxFlowSolver
+	 * <p>Purpose	: Finds the max-flow solver of the given name among those
+	 * declared in META-INF/services : EdmondsKarpCSR, CapacityScaling,
+	 * EdmondsKarp, BoykovKolmogorov, PushRelabel, Dinic, Pseudoflow,
+	 * ParallelPushRelabel, Dynamic, FixedPoint or any other one on the class
+	 * path.
+	 * All of them give the same cut, hence the same labels (FixedPoint first
+	 * rounds the capacities to its resolution).
+	 * <p>@param name
+	 * <p>@return MaxFlowSolver
+	 */
+	public static MaxFlowSolver findMaxFlowSolver(String name) {
+		for (MaxFlowSolver solver : ServiceLoader.load(MaxFlowSolver.class)) {
+			if (solver.getName().equals(name)) {
+				return solver;
+			}
+		}
+		throw new IllegalArgumentException("Unknown max-flow solver " + name);
+	}
+
+	/**
+	 * <p>Method 	: getMaxFlowSolver
+	 * <p>Purpose	: Returns the max-flow solver used for the cuts
+	 * <p>@return MaxFlowSolver
+	 */
+	public MaxFlowSolver getMaxFlowSolver() {
+		return m_maxFlowSolver;
+	}
+
+	/**
+	 * <p>Method 	: setMaxFlowSolver
+	 * <p>Purpose	: Sets the max-flow solver used for the cuts. A solver
+	 * may keep a state between its cuts, so it should not be shared
+	 * by expanders running at the same time (see {@link MaxFlowSolver#copy()}).
+	 * <p>@param maxFlowSolver void
+	 */
+	public void setMaxFlowSolver(MaxFlowSolver maxFlowSolver) {
+		m_maxFlowSolver = maxFlowSolver;
+		m_version++;
+	}
+
+	/**
+	 * <p>Method 	: getEnumerationThreshold
+	 * <p>Purpose	: Returns the number of nodes up to which the binary moves
+	 * are solved by enumeration
+	 * <p>@return int
+	 */
+	public int getEnumerationThreshold() {
+		return m_enumerationThreshold;
+	}
+
+	/**
+	 * <p>Method 	: setEnumerationThreshold
+	 * <p>Purpose	: Sets the number of nodes up to which the binary moves are
+	 * solved by enumeration of the subsets of nodes (at most
+	 * {@link MoveEnumerator#MAX_SIZE}), 0 to always use the max-flow solver,
+	 * as by default. Both give a move of the same energy, but when several
+	 * moves have it they may not choose the same one, so the labels found
+	 * may change once the enumeration is turned on.
+	 * <p>@param enumerationThreshold void
+	 */
+	public void setEnumerationThreshold(int enumerationThreshold) {
+		m_enumerationThreshold = Math.min(enumerationThreshold, MoveEnumerator.MAX_SIZE);
+		m_version++;
+	}
+
+	/**
+	 * <p>Method 	: getThreads
+	 * <p>Purpose	: Returns the number of threads expanding the connected
+	 * components of a graph
+	 * <p>@return int
+	 */
+	public int getThreads() {
+		return m_threads;
+	}
+
+	/**
+	 * <p>Method 	: setThreads
+	 * <p>Purpose	: Sets the number of threads expanding the connected
+	 * components of a graph, 1 to expand them one after the other in the
+	 * calling thread. The pool of the previous number of threads is shut down.
+	 * <p>@param threads void
+	 */
+	public void setThreads(int threads) {
+		m_threads = threads;
+		close();
+	}
+
+	/**
+	 * <p>Method 	: getExecutor
+	 * <p>Purpose	: Returns the executor expanding the connected components
+	 * <p>@return ExecutorService
+	 */
+	public ExecutorService getExecutor() {
+		return m_executor;
+	}
+
+	/**
+	 * <p>Method 	: setExecutor
+	 * <p>Purpose	: Sets the executor expanding the connected components,
+	 * null to use a pool of m_threads threads kept by this expander until
+	 * {@link #close()}
+	 * <p>@param executor void
+	 */
+	public void setExecutor(ExecutorService executor) {
+		m_executor = executor;
+	}
+
+	/**
+	 * <p>Method 	: isParallelSweep
+	 * <p>Purpose	: Returns whether the moves of a sweep are solved in
+	 * advance by several threads
+	 * <p>@return boolean
+	 */
+	public boolean isParallelSweep() {
+		return m_parallelSweep;
+	}
+
+	/**
+	 * <p>Method 	: setParallelSweep
+	 * <p>Purpose	: Sets whether expand solves the moves of a sweep in
+	 * advance : the moves of the next m_threads labels are solved at once by
+	 * a pool of threads from the current assignment, then applied in order
+	 * of the labels as usual. Once a move is accepted the others were solved
+	 * from an assignment which changed, so they are solved again. The
+	 * assignment returned is the same as with one thread.
+	 * <p>@param parallelSweep void
+	 */
+	public void setParallelSweep(boolean parallelSweep) {
+		m_parallelSweep = parallelSweep;
+	}
+
+	/**
+	 * <p>Method 	: getLabelOrder
+	 * <p>Purpose	: Returns the order of the labels of the scheduler used by
+	 * expand, null if the labels are swept in turn
+	 * <p>@return LabelScheduler.Order
+	 */
+	public LabelScheduler.Order getLabelOrder() {
+		return m_labelOrder;
+	}
+
+	/**
+	 * <p>Method 	: setLabelOrder
+	 * <p>Purpose	: Sets the order of the labels of the {@link LabelScheduler}
+	 * used by expand, which only solves again the moves of the labels which
+	 * may have changed, or null to sweep all the labels in turn until a sweep
+	 * changes nothing. The parallel sweeps are not used with a scheduler.
+	 * <p>@param labelOrder void
+	 */
+	public void setLabelOrder(LabelScheduler.Order labelOrder) {
+		m_labelOrder = labelOrder;
+		m_version++;
+	}
+
+	private static LabelScheduler.Order getLabelOrder(String name) {
+		if (name == null) {
+			return null;
+		}
+		return LabelScheduler.Order.valueOf(name);
+	}
+
 	/**
 	 * <p>Method 	: isExpandable
 	 * <p>Purpose	: Check if the constrains on edges of the graph
@@ -49,12 +434,12 @@ public class AlphaExpander {
 	 * <p>@return boolean
 	 */
 	private static boolean isExpandable(MRFGraph mrfGraph) {
-		Vector<Double> energies = null;
+		double[] energies = null;
 		int nodeEnergySize = 0;
 		for (MRFEdge edge : mrfGraph.getEdges()) {
 			//Check for symmetry of Energies
-			energies = edge.getEnergies();
-			nodeEnergySize = edge.getFirstNode().getEnergies().size();
+			energies = edge.getEnergyArray();
+			nodeEnergySize = edge.getFirstNode().getLabelCount();
 			/*if (!energies.elementAt(0).equals(energies.elementAt(3)) || !energies.elementAt(1).equals(energies.elementAt(2))) {
 				System.out.println("Bad Graph on edge " + edge + "! Symmetry broken! Terminating!!!");
 				return false;
@@ -63,7 +448,7 @@ public class AlphaExpander {
 			for (int i = 0; i < nodeEnergySize; i++) {
 				for (int j = i + 1; j < nodeEnergySize; j++) {
 					for (int k = j + 1; k < nodeEnergySize; k++) {
-						if (energies.elementAt(i * nodeEnergySize + k) < (energies.elementAt(i * nodeEnergySize + j) + energies.elementAt(j * nodeEnergySize + k))) {
+						if (energies[i * nodeEnergySize + k] < (energies[i * nodeEnergySize + j] + energies[j * nodeEnergySize + k])) {
 							//System.out.println(energies.elementAt(i * nodeEnergySize + k) + " " + energies.elementAt(i * nodeEnergySize + j) + " " + energies.elementAt(j * nodeEnergySize + k));
 							//System.out.println("Bad Graph on edge " + edge + "! Sub-modularity broken! Terminating!!!");
 							return false;
@@ -75,41 +460,91 @@ public class AlphaExpander {
 		return true;
 	}
 
-	private MRFGraph getAlphaGraph(MRFGraph mrfGraph, Vector<Integer> currentAssignment, int alpha, int maxAlpha) {
+	/**
+	 * <p>Method 	: getAlphaGraph
+	 * <p>Purpose	: Builds the binary MRF graph of the move of \alpha : its
+	 * nodes are the nodes which have the label \alpha (see
+	 * {@link MRFNode#hasLabel(int)}), numbered from 0 in the order of
+	 * moveNodes, the first energy being the one of the current label and the
+	 * second the one of \alpha. The edges to the other nodes, which keep
+	 * their labels, are added to the energies of their ends.
+	 * <p>@param mrfGraph
+	 * <p>@param currentAssignment
+	 * <p>@param alpha
+	 * <p>@param moveNodes the list filled with the nodes of the graph
+	 * <p>@return MRFGraph
+	 */
+	private MRFGraph getAlphaGraph(MRFGraph mrfGraph, Vector<Integer> currentAssignment, int alpha, Vector<MRFNode> moveNodes) {
 		MRFGraph binaryMRFGraph = new MRFGraph();
 		MRFNode binaryNode = null;
 		MRFEdge binaryEdge = null;
 		Vector<MRFNode> binaryNodeVector = new Vector<MRFNode>();
-		Vector<Double> binaryEnergies = null;
+		double[] binaryEnergies = null;
+		int[] localIndex = new int[mrfGraph.getNodes().size()];
 		int firstNodeIndex = 0;
 		int secondNodeIndex = 0;
-		int potentialsLength = 0;
+		int firstLabel = 0;
+		int secondLabel = 0;
 		for (MRFNode node : mrfGraph.getNodes()) {
-			binaryEnergies = new Vector<Double>();
-			binaryEnergies.add(node.getEnergies().elementAt(currentAssignment.elementAt(node.getNodeIndex())));
-			binaryEnergies.add(node.getEnergies().elementAt(alpha));
-			binaryNode = new MRFNode(node.getNodeIndex(), binaryEnergies, null);
+			if (!node.hasLabel(alpha)) {
+				localIndex[node.getNodeIndex()] = -1;
+				continue;
+			}
+			localIndex[node.getNodeIndex()] = moveNodes.size();
+			binaryEnergies = new double[] {node.getEnergy(currentAssignment.elementAt(node.getNodeIndex())), node.getEnergy(alpha)};
+			binaryNode = new MRFNode(moveNodes.size(), binaryEnergies, null);
 			binaryNode.setEnergies(binaryEnergies);
 			binaryMRFGraph.addVertex(binaryNode);
 			binaryNodeVector.add(binaryNode);
+			moveNodes.add(node);
 		}
 		for (MRFEdge edge : mrfGraph.getEdges()) {
-			binaryEnergies = new Vector<Double>();
-			firstNodeIndex = mrfGraph.getNodes().indexOf(edge.getFirstNode());
-			secondNodeIndex = mrfGraph.getNodes().indexOf(edge.getSecondNode());
-			potentialsLength = maxAlpha;
-
-			binaryEnergies.add(edge.getEnergies().elementAt(currentAssignment.elementAt(firstNodeIndex) * potentialsLength + currentAssignment.elementAt(secondNodeIndex)));
-			binaryEnergies.add(edge.getEnergies().elementAt(currentAssignment.elementAt(firstNodeIndex) * potentialsLength + alpha));
-			binaryEnergies.add(edge.getEnergies().elementAt(alpha * potentialsLength + currentAssignment.elementAt(secondNodeIndex)));
-			binaryEnergies.add(edge.getEnergies().elementAt(alpha * potentialsLength + alpha));
-			binaryEdge = new MRFEdge(binaryNodeVector.elementAt(firstNodeIndex), binaryNodeVector.elementAt(secondNodeIndex), binaryEnergies);
-			binaryEdge.setEnergies(binaryEnergies);
-			binaryMRFGraph.addEdge(binaryEdge);
+			firstNodeIndex = edge.getFirstNode().getNodeIndex();
+			secondNodeIndex = edge.getSecondNode().getNodeIndex();
+			firstLabel = currentAssignment.elementAt(firstNodeIndex);
+			secondLabel = currentAssignment.elementAt(secondNodeIndex);
+			if (localIndex[firstNodeIndex] >= 0 && localIndex[secondNodeIndex] >= 0) {
+				binaryEnergies = new double[] {edge.getEnergy(firstLabel, secondLabel), edge.getEnergy(firstLabel, alpha), edge.getEnergy(alpha, secondLabel), edge.getEnergy(alpha, alpha)};
+				binaryEdge = new MRFEdge(binaryNodeVector.elementAt(localIndex[firstNodeIndex]), binaryNodeVector.elementAt(localIndex[secondNodeIndex]), binaryEnergies);
+				binaryEdge.setEnergies(binaryEnergies);
+				binaryMRFGraph.addEdge(binaryEdge);
+			} else if (localIndex[firstNodeIndex] >= 0) {
+				//The second node keeps its label
+				addEnergies(binaryNodeVector.elementAt(localIndex[firstNodeIndex]), edge.getEnergy(firstLabel, secondLabel), edge.getEnergy(alpha, secondLabel));
+			} else if (localIndex[secondNodeIndex] >= 0) {
+				addEnergies(binaryNodeVector.elementAt(localIndex[secondNodeIndex]), edge.getEnergy(firstLabel, secondLabel), edge.getEnergy(firstLabel, alpha));
+			}
 		}
 		return binaryMRFGraph;
 	}
 
+	private static void addEnergies(MRFNode binaryNode, double keepEnergy, double alphaEnergy) {
+		double[] energies = binaryNode.getEnergyArray();
+		energies[0] += keepEnergy;
+		energies[1] += alphaEnergy;
+	}
+
+	/**
+	 * <p>Method 	: getNodeSide
+	 * <p>Purpose	: Returns the side of every node of the graph from the
+	 * side of the nodes of a move : the bit of a node index is set if the
+	 * node keeps its label, as the nodes which are not in the move do.
+	 * <p>@param moveSide the side of the nodes of the move, by local index
+	 * <p>@param moveNodes
+	 * <p>@param size the number of nodes of the graph
+	 * <p>@return BitSet
+	 */
+	static BitSet getNodeSide(BitSet moveSide, Vector<MRFNode> moveNodes, int size) {
+		BitSet sourceSide = new BitSet(size);
+		sourceSide.set(0, size);
+		for (int i = 0; i < moveNodes.size(); i++) {
+			if (!moveSide.get(i)) {
+				sourceSide.clear(moveNodes.elementAt(i).getNodeIndex());
+			}
+		}
+		return sourceSide;
+	}
+
 	/**
 	 * <p>Method 	: createSTGraph
 	 * <p>Purpose	: Creates a Graph with S-T Nodes from
@@ -118,7 +553,7 @@ public class AlphaExpander {
 	 * assignment and value of \alpha)
 	 * <p>@param mrfGraph void
 	 */
-	private Graph createSTGraph(MRFGraph binaryMRFGraph) {
+	Graph createSTGraph(MRFGraph binaryMRFGraph) {
 		Graph graph = new Graph();
 		VertexSet vertexSet = new VertexSet();
 		Vector<Vertex> vertexVector = new Vector<Vertex>();
@@ -127,14 +562,12 @@ public class AlphaExpander {
 		Edge currentEdge = null;
 		Vertex firstVertex = null;
 		Vertex secondVertex = null;
-		Vector<Double> nodeEnergies = null;
-		m_SVertex.setName("S");
+		double[] nodeEnergies = null;
+		double[] edgeEnergies = null;
 		vertexSet.add(m_SVertex);
-		m_TVertex.setName("T");
 		vertexSet.add(m_TVertex);
 		for (MRFNode node : binaryMRFGraph.getNodes()) {
-			currentVertex = new Vertex(node.getNodeIndex(), 0);
-			currentVertex.setName(node.getNodeIndex() + "");
+			currentVertex = getNodeVertex(node.getNodeIndex());
 			vertexSet.add(currentVertex);
 			vertexVector.add(currentVertex);
 		}
@@ -142,34 +575,33 @@ public class AlphaExpander {
 			firstVertex = vertexVector.elementAt(edge.getFirstNode().getNodeIndex());
 			secondVertex = vertexVector.elementAt(edge.getSecondNode().getNodeIndex());
 			currentEdge = new Edge(firstVertex, secondVertex);
-			nodeEnergies = edge.getFirstNode().getEnergies();
-			nodeEnergies.setElementAt(edge.getFirstNode().getEnergies().elementAt(1) + edge.getEnergies().elementAt(2) - edge.getEnergies().elementAt(0), 1);
-			edge.getFirstNode().setEnergies(nodeEnergies);
-			nodeEnergies = edge.getSecondNode().getEnergies();
-			nodeEnergies.setElementAt(edge.getSecondNode().getEnergies().elementAt(1) + edge.getEnergies().elementAt(3) - edge.getEnergies().elementAt(2), 1);
-			edge.getSecondNode().setEnergies(nodeEnergies);
-			currentEdge.setName(edge.getFirstNode().getNodeIndex() + "_" + edge.getSecondNode().getNodeIndex());
-			currentEdge.setValue("capacity", edge.getEnergies().elementAt(1) + edge.getEnergies().elementAt(2) - edge.getEnergies().elementAt(0) - edge.getEnergies().elementAt(3));
+			edgeEnergies = edge.getEnergyArray();
+			nodeEnergies = edge.getFirstNode().getEnergyArray();
+			nodeEnergies[1] = nodeEnergies[1] + edgeEnergies[2] - edgeEnergies[0];
+			edge.getFirstNode().normalizeEnergies();
+			nodeEnergies = edge.getSecondNode().getEnergyArray();
+			nodeEnergies[1] = nodeEnergies[1] + edgeEnergies[3] - edgeEnergies[2];
+			edge.getSecondNode().normalizeEnergies();
+			currentEdge.setValue("capacity", edgeEnergies[1] + edgeEnergies[2] - edgeEnergies[0] - edgeEnergies[3]);
 			edgeSet.add(currentEdge);
 		}
 		for (MRFNode node : binaryMRFGraph.getNodes()) {
 			firstVertex = vertexVector.elementAt(node.getNodeIndex());
+			nodeEnergies = node.getEnergyArray();
 			//Add Edges from S
 			currentEdge = new Edge(m_SVertex, firstVertex);
-			currentEdge.setName(m_SVertex.getName() + "_" + firstVertex.getName());
-			if (node.getEnergies().elementAt(1) > node.getEnergies().elementAt(0)) {
-				currentEdge.setValue("capacity", node.getEnergies().elementAt(1) - node.getEnergies().elementAt(0));
+			if (nodeEnergies[1] > nodeEnergies[0]) {
+				currentEdge.setValue("capacity", nodeEnergies[1] - nodeEnergies[0]);
 			} else {
 				currentEdge.setValue("capacity", 0.0);
 			}
 			edgeSet.add(currentEdge);
 			//Add Edges to T
 			currentEdge = new Edge(firstVertex, m_TVertex);
-			currentEdge.setName(firstVertex.getName() + "_" + m_TVertex.getName());
-			if (node.getEnergies().elementAt(1) > node.getEnergies().elementAt(0)) {
+			if (nodeEnergies[1] > nodeEnergies[0]) {
 				currentEdge.setValue("capacity", 0.0);
 			} else {
-				currentEdge.setValue("capacity", node.getEnergies().elementAt(0) - node.getEnergies().elementAt(1));
+				currentEdge.setValue("capacity", nodeEnergies[0] - nodeEnergies[1]);
 			}
 			edgeSet.add(currentEdge);
 		}
@@ -178,62 +610,161 @@ public class AlphaExpander {
 		return graph;
 	}
 
+	/**
+	 * <p>Method 	: getNodeVertex
+	 * <p>Purpose	: Returns the vertex of the S-T graph for a node, the
+	 * same one for every S-T graph
+	 * <p>@param nodeIndex
+	 * <p>@return Vertex
+	 */
+	private Vertex getNodeVertex(int nodeIndex) {
+		while (m_nodeVertices.size() <= nodeIndex) {
+			m_nodeVertices.add(null);
+		}
+		if (m_nodeVertices.elementAt(nodeIndex) == null) {
+			m_nodeVertices.setElementAt(new Vertex(nodeIndex, 0), nodeIndex);
+		}
+		return m_nodeVertices.elementAt(nodeIndex);
+	}
+
 	/**
 	 * <p>Method 	: getSTMinCut
 	 * <p>Purpose	: Finds the min cut for a given graph constructed 
-	 * using {@link AlphaExpander.createSTGraph()} and returns the  set
-	 * of edges involved in the min cut.
+	 * using {@link AlphaExpander.createSTGraph()} and returns the side
+	 * of each node : the bit of a node index is set if the node is on
+	 * the side of S, that is if the edge from S to the node is not in
+	 * the min cut.
 	 * ## Code taken from MascoptLib ##
 	 * <p>@param graph
-	 * <p>@return EdgeSet
+	 * <p>@return BitSet
 	 */
-	private EdgeSet getSTMinCut(Graph graph) {
+	BitSet getSTMinCut(Graph graph) {
 		STMinCut minCutFinder = new STMinCut(graph, m_SVertex, m_TVertex);
+		minCutFinder.SOLVER = m_maxFlowSolver;
 		//System.out.println("Min Cut Value: " + minCutFinder.minCutValue());
 		//System.out.println("Min Cut:" + minCutFinder.edgeSetCutMin());
-		return minCutFinder.edgeSetCutMin();
+		return minCutFinder.sourceSide(m_nodeVertices.toArray(new Vertex[m_nodeVertices.size()]));
 	}
 
 	/**
 	 * <p>Method 	: calculateScore
-	 * <p>Purpose	: Calculates the score of the latest assignment and prints it 
+	 * <p>Purpose	: Calculates the score of an assignment, see
+	 * {@link CompiledMRF#getScore(int[])}
 	 * <p>@param newAssignment void
 	 * @return 
 	 */
-	private Double getScore(MRFGraph mrfGraph, Vector<Integer> assignment) {
+	static Double getScore(MRFGraph mrfGraph, Vector<Integer> assignment) {
 		double energy = 0.0;
-		double edgeEnergy = 0.0;
 		int firstNodeLabel = 0;
 		int secondNodeLabel = 0;
 		for (MRFEdge edge : mrfGraph.getEdges()) {
 			firstNodeLabel = assignment.elementAt(edge.getFirstNode().getNodeIndex());
 			secondNodeLabel = assignment.elementAt(edge.getSecondNode().getNodeIndex());
-			edgeEnergy = edge.getFirstNode().getEnergies().elementAt(firstNodeLabel);
-			if (edgeEnergy != Double.POSITIVE_INFINITY) {
-				energy += edgeEnergy;
-			} else {
-				energy += 1;
-			}
-			edgeEnergy = edge.getSecondNode().getEnergies().elementAt(secondNodeLabel);
-			if (edgeEnergy != Double.POSITIVE_INFINITY) {
-				energy += edgeEnergy;
-			} else {
-				energy += 1;
-			}
-			//potential += edge.getPotentials().elementAt(firstNodeLabel*numberOfLabels+secondNodeLabel);
+			energy += getNodeScore(edge.getFirstNode().getEnergy(firstNodeLabel));
+			energy += getNodeScore(edge.getSecondNode().getEnergy(secondNodeLabel));
 		}
 		return energy;
-		//System.out.println("Score of Assignment " + potential);
+	}
+
+	/**
+	 * <p>Method 	: getLabels
+	 * <p>Purpose	: Returns the labels of an assignment, by node index
+	 * <p>@param assignment
+	 * <p>@return int[]
+	 */
+	static int[] getLabels(Vector<Integer> assignment) {
+		int[] labels = new int[assignment.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = assignment.elementAt(i);
+		}
+		return labels;
+	}
+
+	/**
+	 * <p>Method 	: getScoreChange
+	 * <p>Purpose	: Returns the change of the score (see
+	 * {@link CompiledMRF#getScore(int[])}) when a node changes its label :
+	 * its energy counts once for each of its edges, so that the score of a
+	 * move is found from the nodes it changes only
+	 * <p>@param mrf
+	 * <p>@param node
+	 * <p>@param oldLabel
+	 * <p>@param newLabel
+	 * <p>@return double
+	 */
+	static double getScoreChange(CompiledMRF mrf, int node, int oldLabel, int newLabel) {
+		return mrf.getDegree(node) * (getNodeScore(mrf.getEnergy(node, newLabel)) - getNodeScore(mrf.getEnergy(node, oldLabel)));
+	}
+
+	/**
+	 * <p>Method 	: getNodeScore
+	 * <p>Purpose	: Returns the score of an energy, an infinite energy
+	 * counting as 1
+	 * <p>@param energy
+	 * <p>@return double
+	 */
+	static double getNodeScore(double energy) {
+		if (energy != Double.POSITIVE_INFINITY) {
+			return energy;
+		}
+		return 1;
 	}
 
 	/**
 	 * <p>Method 	: expand
 	 * <p>Purpose	: Applies steps of alpha expansion algorithm on
-	 * given Undirected graph.
+	 * given Undirected graph, until convergence even if the thread is
+	 * interrupted.
 	 * <p>@param mrfGraph void
 	 */
-	@SuppressWarnings("unchecked")
 	public Vector<Integer> expand(MRFGraph mrfGraph, Vector<Integer> startAssignment, int maxAlpha) {
+		return expand(mrfGraph, startAssignment, maxAlpha, NO_DEADLINE, 0.0, Integer.MAX_VALUE, null, false).getAssignment();
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Applies steps of alpha expansion algorithm on given
+	 * Undirected graph, stopping before convergence when the deadline is
+	 * passed, when cancelled is set or the thread is interrupted (checked
+	 * before each move), after maxSweeps sweeps or when a sweep lowers the
+	 * score by less than tolerance times the score (checked after each sweep).
+	 * The assignment returned is the best one found, as no move accepted
+	 * raises the score. The sweeps counted are the ones started, the one
+	 * which was stopped included.
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignment
+	 * <p>@param maxAlpha
+	 * <p>@param deadline the value of System.nanoTime() at which to stop,
+	 * {@link #NO_DEADLINE} for none
+	 * <p>@param tolerance the relative decrease of the score under which a
+	 * sweep stops the expansion, 0 for none
+	 * <p>@param maxSweeps
+	 * <p>@param cancelled the flag set to stop the expansion, may be null
+	 * <p>@return ExpansionResult
+	 */
+	public ExpansionResult expand(MRFGraph mrfGraph, Vector<Integer> startAssignment, int maxAlpha, long deadline, double tolerance, int maxSweeps, AtomicBoolean cancelled) {
+		return expand(mrfGraph, startAssignment, maxAlpha, deadline, tolerance, maxSweeps, cancelled, true);
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Applies steps of alpha expansion algorithm on given
+	 * Undirected graph as
+	 * {@link #expand(MRFGraph, Vector, int, long, double, int, AtomicBoolean)}
+	 * does, the interruption of the thread stopping the expansion only if
+	 * interruptible is set
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignment
+	 * <p>@param maxAlpha
+	 * <p>@param deadline
+	 * <p>@param tolerance
+	 * <p>@param maxSweeps
+	 * <p>@param cancelled
+	 * <p>@param interruptible
+	 * <p>@return ExpansionResult
+	 */
+	@SuppressWarnings("unchecked")
+	ExpansionResult expand(MRFGraph mrfGraph, Vector<Integer> startAssignment, int maxAlpha, long deadline, double tolerance, int maxSweeps, AtomicBoolean cancelled, boolean interruptible) {
 		//Check if the MRF is metric
 		/*if (!isExpandable(mrfGraph)) {
 			return startAssignment;
@@ -242,75 +773,567 @@ public class AlphaExpander {
 		Vector<Integer> iterationLastAssignment = new Vector<Integer>();
 		Vector<Integer> currentAssignment = new Vector<Integer>();
 		Vector<Integer> newAssignment = new Vector<Integer>();
-		double currentScore = getScore(mrfGraph, startAssignment);
+		//The scores are read from one snapshot of the graph
+		CompiledMRF mrf = new CompiledMRF(mrfGraph);
+		double currentScore = mrf.getScore(getLabels(startAssignment));
 		double newScore = 0.0;
-		MRFGraph binaryMRFGraph = null;
+		double sweepScore = 0.0;
+		int label = 0;
+		int changedNodes = 0;
+		int sweeps = 0;
 		boolean change = true;
-		Iterator<Edge> edgeIterator = null;
-		EdgeSet minCut = null;
-		Edge currentEdge = null;
-		Graph graph = null;
-		int cutNode = 0;
+		BitSet sourceSide = null;
+		boolean parallel = m_parallelSweep && m_threads > 1 && maxAlpha > 1;
+		BitSet[] sourceSides = new BitSet[maxAlpha];
+		ExecutorService executor = null;
+		ExpansionResult.Status status = ExpansionResult.Status.CONVERGED;
 
+		if (m_labelOrder != null) {
+			return expandScheduled(mrfGraph, mrf, startAssignment, maxAlpha, deadline, tolerance, maxSweeps, cancelled, interruptible);
+		}
 		/*for (int i = 0; i < mrfGraph.getNodes().size(); i++) {
 			currentAssignment.add(1);
 		}*/
 		currentAssignment.addAll(startAssignment);
 		//System.out.println(currentAssignment);
+		if (parallel) {
+			executor = getPool();
+		}
 
-		//Alpha expand until better assignments are found
-		while (change) {
-			change = false;
-			//System.out.println("\n\nIteration Begins");
-			for (int alpha = 0; alpha < maxAlpha; alpha++) {
-				//System.out.println("\nalpha = " + alpha);
-				binaryMRFGraph = getAlphaGraph(mrfGraph, currentAssignment, alpha, maxAlpha);
-				graph = createSTGraph(binaryMRFGraph);
-				binaryMRFGraph.clear();
-				//System.out.println("Current Assignment: " + currentAssignment);
-				//System.out.println("Current " + graph);
-				/*while (edgeIterator.hasNext()) {
-					Edge edge = edgeIterator.next();
-					System.out.println(edge + " " + edge.getValue("capacity"));
-				}*/
-				minCut = getSTMinCut(graph);
-				//System.out.println(graph);
-				freeMemory(graph);
-				//System.out.println(graph);
-				edgeIterator = minCut.iterator();
-				newAssignment.clear();
-				newAssignment.addAll(currentAssignment);
-				while (edgeIterator.hasNext()) {
-					currentEdge = edgeIterator.next();
-					if (currentEdge.getName().startsWith("S_")) {
-						cutNode = Integer.parseInt(currentEdge.getName().replace("S_", ""));
-						newAssignment.setElementAt(alpha, cutNode);
+		try {
+			//Alpha expand until better assignments are found
+			sweep:
+			while (change) {
+				change = false;
+				sweeps++;
+				sweepScore = currentScore;
+				Arrays.fill(sourceSides, null);
+				//System.out.println("\n\nIteration Begins");
+				for (int alpha = 0; alpha < maxAlpha; alpha++) {
+					//System.out.println("\nalpha = " + alpha);
+					if (isStopped(deadline, cancelled, interruptible)) {
+						status = getStopStatus(cancelled, interruptible);
+						break sweep;
+					}
+					if (!parallel) {
+						sourceSide = solveMove(mrfGraph, currentAssignment, alpha, maxAlpha);
+					} else {
+						if (sourceSides[alpha] == null) {
+							solveMoves(mrfGraph, currentAssignment, alpha, Math.min(alpha + m_threads, maxAlpha), maxAlpha, executor, sourceSides, interruptible);
+						}
+						sourceSide = sourceSides[alpha];
+					}
+					newAssignment.clear();
+					newAssignment.addAll(currentAssignment);
+					//Only the nodes which change their label change the score
+					newScore = currentScore;
+					changedNodes = 0;
+					for (MRFNode node : mrfGraph.getNodes()) {
+						label = currentAssignment.elementAt(node.getNodeIndex());
+						if (!sourceSide.get(node.getNodeIndex()) && label != alpha) {
+							newAssignment.setElementAt(alpha, node.getNodeIndex());
+							newScore += getScoreChange(mrf, node.getNodeIndex(), label, alpha);
+							changedNodes++;
+						}
+					}
+					//System.out.println("Revised Assignment: " + newAssignment);
+					if (changedNodes > 0 && currentScore >= newScore) {
+						//System.out.println(currentScore + " " + newScore);
+						currentAssignment.clear();
+						currentScore = newScore;
+						currentAssignment.addAll(newAssignment);
+						change = true;
+						//The moves solved in advance are no longer valid
+						Arrays.fill(sourceSides, null);
 					}
 				}
-				minCut.free();
-				//System.out.println("Revised Assignment: " + newAssignment);
-				newScore = getScore(mrfGraph, newAssignment);
-				if (!currentAssignment.equals(newAssignment) && currentScore >= newScore) {
-					//System.out.println(currentScore + " " + newScore);
-					currentAssignment.clear();
+				if (iterationLastAssignment.equals(newAssignment)) {
+					break;
+				}
+				iterationLastAssignment.clear();
+				iterationLastAssignment.addAll(newAssignment);
+				//System.out.println("Iteration Ends\n###############");
+				if (change) {
+					status = getSweepStatus(sweeps, maxSweeps, sweepScore, currentScore, tolerance);
+					if (status != ExpansionResult.Status.CONVERGED) {
+						break;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			status = ExpansionResult.Status.CANCELLED;
+		}
+		iterationLastAssignment.clear();
+		newAssignment.clear();
+		return new ExpansionResult(currentAssignment, currentScore, sweeps, status);
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Applies steps of alpha expansion algorithm on a compiled
+	 * graph, whose labels are given and returned in an int array : the labels
+	 * are swept in turn, as expand does without a label order, until a
+	 * sweep no longer lowers the score. The moves are solved by an
+	 * {@link AlphaMove} kept by this expander, so that once its arrays have
+	 * grown to the size of the graph, an expansion allocates nothing : a move
+	 * gives the list of the nodes it changes, which take \alpha only if the
+	 * move is accepted, and the number of labels changed by the moves which
+	 * lowered the score tells whether to sweep again, instead of comparing
+	 * the assignments of two sweeps.
+	 * <p>@param mrf
+	 * <p>@param labels the start label of each node, replaced by the labels
+	 * found
+	 * <p>@param maxAlpha
+	 * <p>@return double, the score of the labels found
+	 */
+	public double expand(CompiledMRF mrf, int[] labels, int maxAlpha) {
+		double currentScore = mrf.getScore(labels);
+		double newScore = 0.0;
+		int changedCount = 0;
+		int node = 0;
+		int dirty = 1;
+
+		if (m_alphaMove == null) {
+			m_alphaMove = new AlphaMove();
+		}
+		while (dirty > 0) {
+			dirty = 0;
+			for (int alpha = 0; alpha < maxAlpha; alpha++) {
+				changedCount = m_alphaMove.solve(mrf, labels, alpha, m_maxFlowSolver, m_enumerationThreshold);
+				//Only the nodes which change their label change the score
+				newScore = currentScore;
+				for (int i = 0; i < changedCount; i++) {
+					node = m_alphaMove.getChangedNode(i);
+					newScore += getScoreChange(mrf, node, labels[node], alpha);
+				}
+				if (changedCount > 0 && currentScore >= newScore) {
+					for (int i = 0; i < changedCount; i++) {
+						labels[m_alphaMove.getChangedNode(i)] = alpha;
+					}
+					//A move of the same score may undo another one : it does not count
+					if (newScore < currentScore) {
+						dirty += changedCount;
+					}
 					currentScore = newScore;
-					currentAssignment.addAll(newAssignment);
-					change = true;
 				}
 			}
-			if (iterationLastAssignment.equals(newAssignment)) {
+		}
+		return currentScore;
+	}
+
+	/**
+	 * <p>Method 	: expandScheduled
+	 * <p>Purpose	: Applies steps of alpha expansion algorithm on given
+	 * Undirected graph, the labels to expand being given by a
+	 * {@link LabelScheduler}, whose rounds count as sweeps
+	 * <p>@param mrfGraph
+	 * <p>@param mrf the snapshot of mrfGraph read by the scheduler and the
+	 * scores
+	 * <p>@param startAssignment
+	 * <p>@param maxAlpha
+	 * <p>@param deadline
+	 * <p>@param tolerance
+	 * <p>@param maxSweeps
+	 * <p>@param cancelled
+	 * <p>@param interruptible
+	 * <p>@return ExpansionResult
+	 */
+	private ExpansionResult expandScheduled(MRFGraph mrfGraph, CompiledMRF mrf, Vector<Integer> startAssignment, int maxAlpha, long deadline, double tolerance, int maxSweeps, AtomicBoolean cancelled, boolean interruptible) {
+		LabelScheduler scheduler = new LabelScheduler(mrf, maxAlpha, m_labelOrder, new Random(0));
+		Vector<Integer> currentAssignment = new Vector<Integer>(startAssignment);
+		Vector<Integer> newAssignment = new Vector<Integer>();
+		double currentScore = mrf.getScore(getLabels(startAssignment));
+		double newScore = 0.0;
+		double roundScore = currentScore;
+		int[] changedNodes = new int[mrfGraph.getNodes().size()];
+		int changedCount = 0;
+		int label = 0;
+		int alpha = 0;
+		int rounds = 0;
+		BitSet sourceSide = null;
+		ExpansionResult.Status status = ExpansionResult.Status.CONVERGED;
+
+		while ((alpha = scheduler.next(currentAssignment)) >= 0) {
+			if (scheduler.getRoundCount() != rounds) {
+				//The last round is over
+				if (rounds > 0) {
+					status = getSweepStatus(rounds, maxSweeps, roundScore, currentScore, tolerance);
+					if (status != ExpansionResult.Status.CONVERGED) {
+						break;
+					}
+				}
+				rounds = scheduler.getRoundCount();
+				roundScore = currentScore;
+			}
+			if (isStopped(deadline, cancelled, interruptible)) {
+				status = getStopStatus(cancelled, interruptible);
 				break;
 			}
-			iterationLastAssignment.clear();
-			iterationLastAssignment.addAll(newAssignment);
-			//System.out.println("Iteration Ends\n###############");
+			sourceSide = solveMove(mrfGraph, currentAssignment, alpha, maxAlpha);
+			newAssignment.clear();
+			newAssignment.addAll(currentAssignment);
+			newScore = currentScore;
+			changedCount = 0;
+			for (MRFNode node : mrfGraph.getNodes()) {
+				label = currentAssignment.elementAt(node.getNodeIndex());
+				if (!sourceSide.get(node.getNodeIndex()) && label != alpha) {
+					newAssignment.setElementAt(alpha, node.getNodeIndex());
+					newScore += getScoreChange(mrf, node.getNodeIndex(), label, alpha);
+					changedNodes[changedCount++] = node.getNodeIndex();
+				}
+			}
+			if (changedCount > 0 && currentScore >= newScore) {
+				currentAssignment.clear();
+				currentScore = newScore;
+				currentAssignment.addAll(newAssignment);
+				for (int i = 0; i < changedCount; i++) {
+					scheduler.changed(changedNodes[i]);
+				}
+			}
 		}
-		iterationLastAssignment.clear();
 		newAssignment.clear();
-		return currentAssignment;
+		return new ExpansionResult(currentAssignment, currentScore, rounds, status);
+	}
+
+	/**
+	 * <p>Method 	: isStopped
+	 * <p>Purpose	: Returns true if the deadline is passed, cancelled is set
+	 * or the thread is interrupted and interruptible is set
+	 * <p>@param deadline
+	 * <p>@param cancelled
+	 * <p>@param interruptible
+	 * <p>@return boolean
+	 */
+	static boolean isStopped(long deadline, AtomicBoolean cancelled, boolean interruptible) {
+		return (cancelled != null && cancelled.get()) || (interruptible && Thread.currentThread().isInterrupted())
+				|| (deadline != NO_DEADLINE && System.nanoTime() - deadline >= 0);
+	}
+
+	/**
+	 * <p>Method 	: getStopStatus
+	 * <p>Purpose	: Returns why an expansion stopped by isStopped did
+	 * <p>@param cancelled
+	 * <p>@param interruptible
+	 * <p>@return ExpansionResult.Status
+	 */
+	static ExpansionResult.Status getStopStatus(AtomicBoolean cancelled, boolean interruptible) {
+		if ((cancelled != null && cancelled.get()) || (interruptible && Thread.currentThread().isInterrupted())) {
+			return ExpansionResult.Status.CANCELLED;
+		}
+		return ExpansionResult.Status.DEADLINE;
+	}
+
+	/**
+	 * <p>Method 	: getSweepStatus
+	 * <p>Purpose	: Returns whether an expansion should stop after a sweep
+	 * which changed the assignment, CONVERGED if it goes on
+	 * <p>@param sweeps the number of sweeps done
+	 * <p>@param maxSweeps
+	 * <p>@param sweepScore the score before the sweep
+	 * <p>@param score the score after the sweep
+	 * <p>@param tolerance
+	 * <p>@return ExpansionResult.Status
+	 */
+	static ExpansionResult.Status getSweepStatus(int sweeps, int maxSweeps, double sweepScore, double score, double tolerance) {
+		if (sweeps >= maxSweeps) {
+			return ExpansionResult.Status.MAX_SWEEPS;
+		}
+		if (sweepScore - score < tolerance * Math.abs(sweepScore)) {
+			return ExpansionResult.Status.TOLERANCE;
+		}
+		return ExpansionResult.Status.CONVERGED;
+	}
+
+	/**
+	 * <p>Method 	: solveMove
+	 * <p>Purpose	: Finds the move of \alpha from the given assignment and
+	 * returns the side of each node : the bit of a node index is set if
+	 * the node keeps its label.
+	 * <p>@param mrfGraph
+	 * <p>@param currentAssignment
+	 * <p>@param alpha
+	 * <p>@param maxAlpha
+	 * <p>@return BitSet
+	 */
+	BitSet solveMove(MRFGraph mrfGraph, Vector<Integer> currentAssignment, int alpha, int maxAlpha) {
+		Vector<MRFNode> moveNodes = new Vector<MRFNode>();
+		MRFGraph binaryMRFGraph = getAlphaGraph(mrfGraph, currentAssignment, alpha, moveNodes);
+		BitSet sourceSide = null;
+		Graph graph = null;
+		if (binaryMRFGraph.getNodes().size() <= m_enumerationThreshold) {
+			//Small graph : no S-T graph
+			sourceSide = MoveEnumerator.solve(binaryMRFGraph);
+			binaryMRFGraph.clear();
+		} else {
+			graph = createSTGraph(binaryMRFGraph);
+			binaryMRFGraph.clear();
+			sourceSide = getSTMinCut(graph);
+			freeMemory(graph);
+		}
+		return getNodeSide(sourceSide, moveNodes, mrfGraph.getNodes().size());
+	}
+
+	/**
+	 * <p>Method 	: solveMoves
+	 * <p>Purpose	: Finds the moves of the labels from to to-1 from the
+	 * same assignment, each one by a thread of the executor with a copy of
+	 * this expander (see {@link #takeCopy()}), and stores their sides in
+	 * sourceSides
+	 * <p>@param mrfGraph
+	 * <p>@param currentAssignment
+	 * <p>@param from
+	 * <p>@param to
+	 * <p>@param maxAlpha
+	 * <p>@param executor
+	 * <p>@param sourceSides
+	 * <p>@param interruptible false to wait for the moves even if the thread
+	 * is interrupted, which is interrupted again once they are solved
+	 * <p>@throws InterruptedException void
+	 */
+	private void solveMoves(final MRFGraph mrfGraph, Vector<Integer> currentAssignment, int from, int to, final int maxAlpha, ExecutorService executor, BitSet[] sourceSides, boolean interruptible) throws InterruptedException {
+		final Vector<Integer> assignment = new Vector<Integer>(currentAssignment);
+		Vector<Future<BitSet>> results = new Vector<Future<BitSet>>();
+		boolean interrupted = false;
+		try {
+			for (int alpha = from; alpha < to; alpha++) {
+				final int move = alpha;
+				results.add(executor.submit(new Callable<BitSet>() {
+					public BitSet call() {
+						AlphaExpander expander = takeCopy();
+						try {
+							return expander.solveMove(mrfGraph, assignment, move, maxAlpha);
+						} finally {
+							giveBack(expander);
+						}
+					}
+				}));
+			}
+			for (int alpha = from; alpha < to; alpha++) {
+				while (sourceSides[alpha] == null) {
+					try {
+						sourceSides[alpha] = results.elementAt(alpha - from).get();
+					} catch (InterruptedException e) {
+						if (interruptible) {
+							throw e;
+						}
+						interrupted = true;
+					}
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			for (Future<BitSet> result : results) {
+				result.cancel(true);
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * <p>Method 	: expandComponents
+	 * <p>Purpose	: Applies steps of alpha expansion algorithm on each
+	 * connected component of the given graph apart (see {@link MRFComponents}),
+	 * the components being expanded by the pool of threads of this expander
+	 * (see {@link #getPool()}), each task taking a copy of this expander. The labels found for the components are
+	 * merged into one assignment. A component is expanded as expand would
+	 * expand it alone : its moves are accepted on its own score, which
+	 * is computed on its edges only.
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignment
+	 * <p>@param maxAlpha
+	 * <p>@return Vector<Integer>
+	 */
+	public Vector<Integer> expandComponents(MRFGraph mrfGraph, Vector<Integer> startAssignment, final int maxAlpha) {
+		final MRFComponents components = new MRFComponents(mrfGraph);
+		Vector<Integer> assignment = new Vector<Integer>(startAssignment);
+		Integer[] order = new Integer[components.size()];
+		Vector<Future<Vector<Integer>>> results = new Vector<Future<Vector<Integer>>>();
+
+		if (components.size() <= 1) {
+			return expand(mrfGraph, startAssignment, maxAlpha);
+		}
+		if (m_threads <= 1) {
+			for (int c = 0; c < components.size(); c++) {
+				components.merge(assignment, c, expand(components.getComponent(c), components.split(startAssignment, c), maxAlpha));
+			}
+			return assignment;
+		}
+		//The largest components are started first
+		for (int c = 0; c < order.length; c++) {
+			order[c] = c;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer first, Integer second) {
+				return components.getNodeIndices(second).length - components.getNodeIndices(first).length;
+			}
+		});
+		ExecutorService executor = getPool();
+		try {
+			for (int c : order) {
+				final MRFGraph component = components.getComponent(c);
+				final Vector<Integer> componentAssignment = components.split(startAssignment, c);
+				results.add(executor.submit(new Callable<Vector<Integer>>() {
+					public Vector<Integer> call() {
+						AlphaExpander expander = takeCopy();
+						try {
+							return expander.expand(component, componentAssignment, maxAlpha);
+						} finally {
+							giveBack(expander);
+						}
+					}
+				}));
+			}
+			for (int i = 0; i < order.length; i++) {
+				components.merge(assignment, order[i], results.elementAt(i).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("alpha expansion interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			for (Future<Vector<Integer>> result : results) {
+				result.cancel(true);
+			}
+		}
+		return assignment;
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Applies steps of alpha expansion algorithm on several
+	 * independent graphs at once. The graphs go through the iterations
+	 * together, and the S-T graphs of all their moves for the same \alpha
+	 * are cut by one run of a max-flow algorithm ({@link BatchSTMinCut}),
+	 * instead of one run for each. The algorithm is a copy of the max-flow
+	 * solver of this expander, or Boykov-Kolmogorov if the solver does not
+	 * work on a network (EdmondsKarp). The assignment of every graph is the one
+	 * given by expand(mrfGraph, startAssignment, maxAlpha).
+	 * <p>@param mrfGraphs
+	 * <p>@param startAssignments
+	 * <p>@param maxAlphas
+	 * <p>@return Vector<Vector<Integer>>
+	 */
+	public Vector<Vector<Integer>> expand(Vector<MRFGraph> mrfGraphs, Vector<Vector<Integer>> startAssignments, Vector<Integer> maxAlphas) {
+		int count = mrfGraphs.size();
+		Vector<Vector<Integer>> iterationLastAssignments = new Vector<Vector<Integer>>();
+		Vector<Vector<Integer>> currentAssignments = new Vector<Vector<Integer>>();
+		Vector<Vector<Integer>> newAssignments = new Vector<Vector<Integer>>();
+		Vector<Vector<MRFNode>> moveNodes = new Vector<Vector<MRFNode>>();
+		double[] currentScores = new double[count];
+		boolean[] changes = new boolean[count];
+		boolean[] converged = new boolean[count];
+		BitSet[] sourceSides = new BitSet[count];
+		Graph[] graphs = new Graph[count];
+		int[] problems = new int[count];
+		BatchSTMinCut minCutFinder = new BatchSTMinCut();
+		Vertex[] nodeVertices = null;
+		MRFGraph binaryMRFGraph = null;
+		Vector<Integer> newAssignment = null;
+		Vector<Integer> currentAssignment = null;
+		double newScore = 0.0;
+		CompiledMRF[] mrfs = new CompiledMRF[count];
+		int label = 0;
+		int changedNodes = 0;
+		int largestAlpha = 0;
+		int remaining = count;
+
+		//The union is cut by the solver of this expander when it works on a network
+		if (m_maxFlowSolver instanceof AbstractMinCut) {
+			minCutFinder.ENGINE = (AbstractMinCut) m_maxFlowSolver.copy();
+		}
+		for (int i = 0; i < count; i++) {
+			mrfs[i] = new CompiledMRF(mrfGraphs.elementAt(i));
+			currentScores[i] = mrfs[i].getScore(getLabels(startAssignments.elementAt(i)));
+			currentAssignments.add(new Vector<Integer>(startAssignments.elementAt(i)));
+			newAssignments.add(new Vector<Integer>());
+			iterationLastAssignments.add(new Vector<Integer>());
+			moveNodes.add(new Vector<MRFNode>());
+			largestAlpha = Math.max(largestAlpha, maxAlphas.elementAt(i));
+		}
+
+		//Alpha expand until better assignments are found for some graph
+		while (remaining > 0) {
+			for (int i = 0; i < count; i++) {
+				changes[i] = false;
+			}
+			for (int alpha = 0; alpha < largestAlpha; alpha++) {
+				minCutFinder.clear();
+				for (int i = 0; i < count; i++) {
+					problems[i] = -1;
+					if (converged[i] || alpha >= maxAlphas.elementAt(i)) {
+						continue;
+					}
+					moveNodes.elementAt(i).clear();
+					binaryMRFGraph = getAlphaGraph(mrfGraphs.elementAt(i), currentAssignments.elementAt(i), alpha, moveNodes.elementAt(i));
+					if (binaryMRFGraph.getNodes().size() <= m_enumerationThreshold) {
+						//Small graph : no S-T graph
+						sourceSides[i] = MoveEnumerator.solve(binaryMRFGraph);
+					} else {
+						graphs[i] = createSTGraph(binaryMRFGraph);
+						problems[i] = minCutFinder.add(graphs[i], m_SVertex, m_TVertex);
+					}
+					binaryMRFGraph.clear();
+				}
+				if (minCutFinder.size() > 0) {
+					minCutFinder.run();
+					nodeVertices = m_nodeVertices.toArray(new Vertex[m_nodeVertices.size()]);
+				}
+				for (int i = 0; i < count; i++) {
+					if (converged[i] || alpha >= maxAlphas.elementAt(i)) {
+						continue;
+					}
+					if (problems[i] >= 0) {
+						sourceSides[i] = minCutFinder.sourceSide(problems[i], nodeVertices);
+						freeMemory(graphs[i]);
+						graphs[i] = null;
+					}
+					sourceSides[i] = getNodeSide(sourceSides[i], moveNodes.elementAt(i), mrfGraphs.elementAt(i).getNodes().size());
+					currentAssignment = currentAssignments.elementAt(i);
+					newAssignment = newAssignments.elementAt(i);
+					newAssignment.clear();
+					newAssignment.addAll(currentAssignment);
+					newScore = currentScores[i];
+					changedNodes = 0;
+					for (MRFNode node : mrfGraphs.elementAt(i).getNodes()) {
+						label = currentAssignment.elementAt(node.getNodeIndex());
+						if (!sourceSides[i].get(node.getNodeIndex()) && label != alpha) {
+							newAssignment.setElementAt(alpha, node.getNodeIndex());
+							newScore += getScoreChange(mrfs[i], node.getNodeIndex(), label, alpha);
+							changedNodes++;
+						}
+					}
+					if (changedNodes > 0 && currentScores[i] >= newScore) {
+						currentAssignment.clear();
+						currentScores[i] = newScore;
+						currentAssignment.addAll(newAssignment);
+						changes[i] = true;
+					}
+					sourceSides[i] = null;
+				}
+			}
+			for (int i = 0; i < count; i++) {
+				if (converged[i]) {
+					continue;
+				}
+				if (!changes[i] || iterationLastAssignments.elementAt(i).equals(newAssignments.elementAt(i))) {
+					converged[i] = true;
+					remaining--;
+				} else {
+					iterationLastAssignments.elementAt(i).clear();
+					iterationLastAssignments.elementAt(i).addAll(newAssignments.elementAt(i));
+				}
+			}
+		}
+		minCutFinder.clear();
+		return currentAssignments;
 	}
 
-	private void freeMemory(Graph graph) {
+	void freeMemory(Graph graph) {
 		graph.getAbstractEdgeSet().clear();
 		graph.getAbstractVertexSet().clear();
 		graph.free();
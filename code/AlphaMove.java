@@ -0,0 +1,340 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.AbstractMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.CSRMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.FlowNetwork;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.MaxFlowSolver;
+
+import java.util.Arrays;
+
+/**
+ * <p>Class	: AlphaMove
+ * <p>Purpose	: This class solves the moves of alpha expansion of a
+ * {@link CompiledMRF} whose labels are given by an int array. The binary
+ * graph of a move, its S-T network and the work arrays of the max-flow
+ * algorithm are arrays kept from one move to the next, which are only
+ * allocated again when a larger graph comes : once they have grown, a move
+ * allocates nothing.
+ * <p>The energies and capacities of a move are the ones of
+ * AlphaExpander.getAlphaGraph and createSTGraph, in the same order, and the
+ * moves of at most the enumeration threshold nodes are solved by
+ * {@link MoveEnumerator}, so the nodes taking \alpha are the ones of
+ * AlphaExpander.solveMove. An instance is used by one thread at a time.
+ */
+public class AlphaMove {
+
+	private static final int SOURCE = 0;
+	private static final int SINK = 1;
+
+	/**
+	 * This field stores the algorithm used when the max-flow solver given
+	 * does not work on a {@link FlowNetwork}
+	 */
+	private AbstractMinCut m_defaultEngine = new CSRMinCut();
+	/**
+	 * This field stores the network of the moves, set again for each one
+	 */
+	private FlowNetwork m_network = new FlowNetwork();
+	/**
+	 * This field stores the number of each node among the nodes of the
+	 * move, -1 for a node which does not have the label \alpha
+	 */
+	private int[] m_localIndex = new int[0];
+	/**
+	 * This field stores the node index of each node of the move
+	 */
+	private int[] m_moveNodes = new int[0];
+	/**
+	 * This field stores the energy of keeping its label of each node of the
+	 * move
+	 */
+	private double[] m_keepEnergies = new double[0];
+	/**
+	 * This field stores the energy of taking \alpha of each node of the move
+	 */
+	private double[] m_alphaEnergies = new double[0];
+	/**
+	 * This field stores the ends of the edges of the move, two by edge
+	 */
+	private int[] m_edgeNodes = new int[0];
+	/**
+	 * This field stores the energies of the edges of the move, four by edge
+	 */
+	private double[] m_edgeEnergies = new double[0];
+	/**
+	 * This field stores the tail of each arc of the S-T network
+	 */
+	private int[] m_tails = new int[0];
+	/**
+	 * This field stores the head of each arc of the S-T network
+	 */
+	private int[] m_heads = new int[0];
+	/**
+	 * This field stores the capacity of each arc of the S-T network
+	 */
+	private double[] m_capacities = new double[0];
+	/**
+	 * This field stores the side of each vertex of the S-T network
+	 */
+	private boolean[] m_side = new boolean[0];
+	/**
+	 * This field stores the work array of the search of the side
+	 */
+	private int[] m_queue = new int[0];
+	/**
+	 * This field stores the capacities of the edges from S of an
+	 * enumerated move
+	 */
+	private double[] m_sourceCapacities = new double[MoveEnumerator.MAX_SIZE];
+	/**
+	 * This field stores the capacities of the edges to T of an enumerated
+	 * move
+	 */
+	private double[] m_sinkCapacities = new double[MoveEnumerator.MAX_SIZE];
+	/**
+	 * This field stores the capacities of the edges between the nodes of
+	 * an enumerated move
+	 */
+	private double[][] m_pairCapacities = new double[MoveEnumerator.MAX_SIZE][MoveEnumerator.MAX_SIZE];
+	/**
+	 * This field stores the nodes taking \alpha in the last move
+	 */
+	private int[] m_changedNodes = new int[0];
+
+	/**
+	 * <p>Method 	: getChangedNode
+	 * <p>Purpose	: Returns the i-th node taking \alpha in the last move
+	 * <p>@param i
+	 * <p>@return int
+	 */
+	public int getChangedNode(int i) {
+		return m_changedNodes[i];
+	}
+
+	/**
+	 * <p>Method 	: solve
+	 * <p>Purpose	: Finds the move of \alpha from the given labels and returns
+	 * the number of nodes which take \alpha and had another label, given by
+	 * getChangedNode. The labels are not changed.
+	 * <p>@param mrf
+	 * <p>@param labels the label of each node
+	 * <p>@param alpha
+	 * <p>@param maxFlowSolver the solver of the cuts, which is used if it
+	 * works on a {@link FlowNetwork}
+	 * <p>@param enumerationThreshold the number of nodes up to which the move
+	 * is solved by {@link MoveEnumerator}
+	 * <p>@return int
+	 */
+	public int solve(CompiledMRF mrf, int[] labels, int alpha, MaxFlowSolver maxFlowSolver, int enumerationThreshold) {
+		int count = 0;
+		int edgeCount = 0;
+		int changedCount = 0;
+		int p = 0;
+		int q = 0;
+		int firstLabel = 0;
+		int secondLabel = 0;
+
+		allocate(mrf.size(), mrf.getEdgeCount());
+		for (int i = 0; i < mrf.size(); i++) {
+			if (mrf.getLabelCount(i) <= alpha) {
+				m_localIndex[i] = -1;
+				continue;
+			}
+			m_localIndex[i] = count;
+			m_moveNodes[count] = i;
+			m_keepEnergies[count] = mrf.getEnergy(i, labels[i]);
+			m_alphaEnergies[count] = mrf.getEnergy(i, alpha);
+			normalize(count++);
+		}
+		if (count == 0) {
+			return 0;
+		}
+		for (int e = 0; e < mrf.getEdgeCount(); e++) {
+			p = m_localIndex[mrf.getFirstNode(e)];
+			q = m_localIndex[mrf.getSecondNode(e)];
+			firstLabel = labels[mrf.getFirstNode(e)];
+			secondLabel = labels[mrf.getSecondNode(e)];
+			if (p >= 0 && q >= 0) {
+				m_edgeNodes[2 * edgeCount] = p;
+				m_edgeNodes[2 * edgeCount + 1] = q;
+				m_edgeEnergies[4 * edgeCount] = mrf.getEdgeEnergy(e, firstLabel, secondLabel);
+				m_edgeEnergies[4 * edgeCount + 1] = mrf.getEdgeEnergy(e, firstLabel, alpha);
+				m_edgeEnergies[4 * edgeCount + 2] = mrf.getEdgeEnergy(e, alpha, secondLabel);
+				m_edgeEnergies[4 * edgeCount + 3] = mrf.getEdgeEnergy(e, alpha, alpha);
+				normalizeEdge(edgeCount++);
+			} else if (p >= 0) {
+				//The second node keeps its label
+				m_keepEnergies[p] += mrf.getEdgeEnergy(e, firstLabel, secondLabel);
+				m_alphaEnergies[p] += mrf.getEdgeEnergy(e, alpha, secondLabel);
+			} else if (q >= 0) {
+				m_keepEnergies[q] += mrf.getEdgeEnergy(e, firstLabel, secondLabel);
+				m_alphaEnergies[q] += mrf.getEdgeEnergy(e, firstLabel, alpha);
+			}
+		}
+		if (count <= enumerationThreshold) {
+			int mask = enumerate(count, edgeCount);
+			for (p = 0; p < count; p++) {
+				if ((mask & (1 << p)) != 0 && labels[m_moveNodes[p]] != alpha) {
+					m_changedNodes[changedCount++] = m_moveNodes[p];
+				}
+			}
+		} else {
+			cut(count, edgeCount, (maxFlowSolver instanceof AbstractMinCut) ? (AbstractMinCut) maxFlowSolver : m_defaultEngine);
+			for (p = 0; p < count; p++) {
+				if (!m_side[2 + p] && labels[m_moveNodes[p]] != alpha) {
+					m_changedNodes[changedCount++] = m_moveNodes[p];
+				}
+			}
+		}
+		return changedCount;
+	}
+
+	/**
+	 * <p>Method 	: enumerate
+	 * <p>Purpose	: Solves the move by {@link MoveEnumerator}, with the
+	 * capacities of MoveEnumerator.solve, and returns the subset of nodes
+	 * taking \alpha
+	 * <p>@param count the number of nodes of the move
+	 * <p>@param edgeCount the number of edges of the move
+	 * <p>@return int
+	 */
+	private int enumerate(int count, int edgeCount) {
+		int p = 0;
+		int q = 0;
+		double capacity = 0.0;
+
+		for (p = 0; p < count; p++) {
+			Arrays.fill(m_pairCapacities[p], 0, count, 0.0);
+		}
+		for (int k = 0; k < edgeCount; k++) {
+			p = m_edgeNodes[2 * k];
+			q = m_edgeNodes[2 * k + 1];
+			m_alphaEnergies[p] = m_alphaEnergies[p] + m_edgeEnergies[4 * k + 2] - m_edgeEnergies[4 * k];
+			m_alphaEnergies[q] = m_alphaEnergies[q] + m_edgeEnergies[4 * k + 3] - m_edgeEnergies[4 * k + 2];
+			capacity = MoveEnumerator.bound(getPairCapacity(k));
+			m_pairCapacities[p][q] += capacity;
+			m_pairCapacities[q][p] += capacity;
+		}
+		for (p = 0; p < count; p++) {
+			m_sourceCapacities[p] = 0.0;
+			m_sinkCapacities[p] = 0.0;
+			if (m_alphaEnergies[p] > m_keepEnergies[p]) {
+				m_sourceCapacities[p] = MoveEnumerator.bound(m_alphaEnergies[p] - m_keepEnergies[p]);
+			} else {
+				m_sinkCapacities[p] = MoveEnumerator.bound(m_keepEnergies[p] - m_alphaEnergies[p]);
+			}
+		}
+		return MoveEnumerator.enumerate(count, m_sourceCapacities, m_sinkCapacities, m_pairCapacities);
+	}
+
+	/**
+	 * <p>Method 	: cut
+	 * <p>Purpose	: Solves the move by a max flow in the S-T network of
+	 * AlphaExpander.createSTGraph, S being the vertex 0, T the vertex 1 and
+	 * the node p of the move the vertex 2 + p, and stores the sides in m_side
+	 * <p>@param count the number of nodes of the move
+	 * <p>@param edgeCount the number of edges of the move
+	 * <p>@param engine
+	 */
+	private void cut(int count, int edgeCount, AbstractMinCut engine) {
+		int arcCount = 0;
+		int p = 0;
+		int q = 0;
+		double capacity = 0.0;
+
+		for (int k = 0; k < edgeCount; k++) {
+			p = m_edgeNodes[2 * k];
+			q = m_edgeNodes[2 * k + 1];
+			m_alphaEnergies[p] = m_alphaEnergies[p] + m_edgeEnergies[4 * k + 2] - m_edgeEnergies[4 * k];
+			normalize(p);
+			m_alphaEnergies[q] = m_alphaEnergies[q] + m_edgeEnergies[4 * k + 3] - m_edgeEnergies[4 * k + 2];
+			normalize(q);
+			//The edge is undirected : one arc each way
+			capacity = getPairCapacity(k);
+			setArc(arcCount++, 2 + p, 2 + q, capacity);
+			setArc(arcCount++, 2 + q, 2 + p, capacity);
+		}
+		for (p = 0; p < count; p++) {
+			if (m_alphaEnergies[p] > m_keepEnergies[p]) {
+				setArc(arcCount++, SOURCE, 2 + p, m_alphaEnergies[p] - m_keepEnergies[p]);
+				setArc(arcCount++, 2 + p, SINK, 0.0);
+			} else {
+				setArc(arcCount++, SOURCE, 2 + p, 0.0);
+				setArc(arcCount++, 2 + p, SINK, m_keepEnergies[p] - m_alphaEnergies[p]);
+			}
+		}
+		m_network.set(count + 2, SOURCE, SINK, m_tails, m_heads, m_capacities, arcCount, engine.INFINITY);
+		engine.sourceSide(m_network, m_side, m_queue);
+	}
+
+	private double getPairCapacity(int k) {
+		return m_edgeEnergies[4 * k + 1] + m_edgeEnergies[4 * k + 2] - m_edgeEnergies[4 * k] - m_edgeEnergies[4 * k + 3];
+	}
+
+	private void setArc(int k, int tail, int head, double capacity) {
+		m_tails[k] = tail;
+		m_heads[k] = head;
+		m_capacities[k] = capacity;
+	}
+
+	/**
+	 * <p>Method 	: normalize
+	 * <p>Purpose	: Zero-normalizes the energies of a node of the move, as
+	 * {@link MRFNode#normalizeEnergies()}
+	 * <p>@param p
+	 */
+	private void normalize(int p) {
+		double minEnergy = Double.MAX_VALUE;
+		if (m_keepEnergies[p] < minEnergy)
+			minEnergy = m_keepEnergies[p];
+		if (m_alphaEnergies[p] < minEnergy)
+			minEnergy = m_alphaEnergies[p];
+		m_keepEnergies[p] -= minEnergy;
+		m_alphaEnergies[p] -= minEnergy;
+	}
+
+	/**
+	 * <p>Method 	: normalizeEdge
+	 * <p>Purpose	: Zero-normalizes the energies of an edge of the move, as
+	 * {@link MRFEdge#normalizeEnergies()}
+	 * <p>@param k
+	 */
+	private void normalizeEdge(int k) {
+		double minEnergy = Double.MAX_VALUE;
+		for (int i = 4 * k; i < 4 * k + 4; i++) {
+			if (m_edgeEnergies[i] < minEnergy)
+				minEnergy = m_edgeEnergies[i];
+		}
+		for (int i = 4 * k; i < 4 * k + 4; i++) {
+			m_edgeEnergies[i] -= minEnergy;
+		}
+	}
+
+	/**
+	 * <p>Method 	: allocate
+	 * <p>Purpose	: Makes the arrays large enough for a graph of the given
+	 * size, keeping them if they are
+	 * <p>@param size the number of nodes
+	 * <p>@param edgeCount the number of edges
+	 */
+	private void allocate(int size, int edgeCount) {
+		if (m_localIndex.length < size) {
+			m_localIndex = new int[size];
+			m_moveNodes = new int[size];
+			m_keepEnergies = new double[size];
+			m_alphaEnergies = new double[size];
+			m_changedNodes = new int[size];
+			m_side = new boolean[size + 2];
+			m_queue = new int[size + 2];
+		}
+		if (m_edgeNodes.length < 2 * edgeCount) {
+			m_edgeNodes = new int[2 * edgeCount];
+			m_edgeEnergies = new double[4 * edgeCount];
+		}
+		if (m_tails.length < 2 * (size + edgeCount)) {
+			m_tails = new int[2 * (size + edgeCount)];
+			m_heads = new int[2 * (size + edgeCount)];
+			m_capacities = new double[2 * (size + edgeCount)];
+		}
+	}
+}
@@ -0,0 +1,367 @@
+// ******************************************************* //
+// Boykov-Kolmogorov Algorithm
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph
+ *
+ * The algorithm used is the one of Boykov and Kolmogorov : two search trees
+ * are grown from s and from t until they touch, the path found is augmented
+ * and the vertices cut from their tree by the saturated arcs (the orphans)
+ * are adopted by another vertex of the same tree when possible. The trees are
+ * thus kept from one augmentation to the next, instead of restarting the
+ * search from s as in {@link MinCut}.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class BKMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "BoykovKolmogorov";
+
+    private static final int FREE = 0;
+    private static final int SOURCE = 1;
+    private static final int SINK = 2;
+
+    // the values of parent for the roots and for the orphans
+    private static final int TERMINAL = -2;
+    private static final int ORPHAN = -1;
+
+    private FlowNetwork net;
+    private int[] tree;
+
+    // the residual arc from a vertex of the source tree to its child, or
+    // from a vertex of the sink tree to its parent
+    private int[] parent;
+    private int[] dist;
+    private int[] time;
+    private int clock;
+
+    private int[] active;
+    private boolean[] isActive;
+    private int activeFirst;
+    private int activeCount;
+    private int[] orphan;
+    private int orphanFirst;
+    private int orphanCount;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public BKMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public BKMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        return copyTo(new BKMinCut());
+    }
+
+    void augment(FlowNetwork fn) {
+        int n = fn.n;
+        int current = -1;
+
+        net = fn;
+
+        // the work arrays are kept from one network to the next
+        if ((tree == null) || (tree.length < n)) {
+            tree = new int[n];
+            parent = new int[n];
+            dist = new int[n];
+            time = new int[n];
+            active = new int[n];
+            isActive = new boolean[n];
+            orphan = new int[n];
+        } else {
+            Arrays.fill(tree, 0, n, FREE);
+            Arrays.fill(parent, 0, n, 0);
+            Arrays.fill(dist, 0, n, 0);
+            Arrays.fill(time, 0, n, 0);
+            Arrays.fill(isActive, 0, n, false);
+        }
+
+        clock = 0;
+        activeFirst = 0;
+        activeCount = 0;
+        orphanFirst = 0;
+        orphanCount = 0;
+
+        tree[fn.source] = SOURCE;
+        parent[fn.source] = TERMINAL;
+        tree[fn.sink] = SINK;
+        parent[fn.sink] = TERMINAL;
+        activate(fn.source);
+        activate(fn.sink);
+
+        while (true) {
+            int p;
+
+            // a vertex which has just given a path is scanned again
+            if ((current >= 0) && (tree[current] != FREE)) {
+                p = current;
+            } else {
+                p = nextActive();
+
+                if (p < 0) {
+                    break;
+                }
+            }
+
+            current = -1;
+
+            int bridge = grow(p);
+
+            if (bridge >= 0) {
+                current = p;
+                clock++;
+                push(bridge);
+                adopt();
+            }
+        }
+
+        net = null;
+    }
+
+    private void activate(int v) {
+        if (!isActive[v]) {
+            isActive[v] = true;
+            active[(activeFirst + activeCount) % active.length] = v;
+            activeCount++;
+        }
+    }
+
+    private int nextActive() {
+        while (activeCount > 0) {
+            int v = active[activeFirst];
+            activeFirst = (activeFirst + 1) % active.length;
+            activeCount--;
+            isActive[v] = false;
+
+            if (tree[v] != FREE) {
+                return v;
+            }
+        }
+
+        return -1;
+    }
+
+    private void addOrphan(int v) {
+        parent[v] = ORPHAN;
+        orphan[(orphanFirst + orphanCount) % orphan.length] = v;
+        orphanCount++;
+    }
+
+    // the parent of a vertex in its tree
+    private int up(int v) {
+        int a = parent[v];
+
+        return (tree[v] == SOURCE) ? net.head[net.mate[a]] : net.head[a];
+    }
+
+    // grows the tree of p, returns the residual arc joining the two trees if any
+    private int grow(int p) {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+
+        for (int a = net.first[p]; a < net.first[p + 1]; a++) {
+            int q = head[a];
+            int b = (tree[p] == SOURCE) ? a : mate[a];
+
+            if (residual[b] > 0) {
+                if (tree[q] == FREE) {
+                    tree[q] = tree[p];
+                    parent[q] = b;
+                    time[q] = time[p];
+                    dist[q] = dist[p] + 1;
+                    activate(q);
+                } else if (tree[q] != tree[p]) {
+                    return b;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    // augments the path s ~> tail(bridge) -> head(bridge) ~> t
+    private void push(int bridge) {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        double delta = residual[bridge];
+        int v;
+
+        for (v = head[mate[bridge]]; parent[v] != TERMINAL; v = up(v)) {
+            delta = Math.min(delta, residual[parent[v]]);
+        }
+
+        for (v = head[bridge]; parent[v] != TERMINAL; v = up(v)) {
+            delta = Math.min(delta, residual[parent[v]]);
+        }
+
+        residual[bridge] -= delta;
+        residual[mate[bridge]] += delta;
+
+        v = head[mate[bridge]];
+
+        while (parent[v] != TERMINAL) {
+            int a = parent[v];
+            int u = up(v);
+            residual[a] -= delta;
+            residual[mate[a]] += delta;
+
+            if (residual[a] <= 0) {
+                addOrphan(v);
+            }
+
+            v = u;
+        }
+
+        v = head[bridge];
+
+        while (parent[v] != TERMINAL) {
+            int a = parent[v];
+            int u = up(v);
+            residual[a] -= delta;
+            residual[mate[a]] += delta;
+
+            if (residual[a] <= 0) {
+                addOrphan(v);
+            }
+
+            v = u;
+        }
+    }
+
+    // the distance of v to the root of its tree, Integer.MAX_VALUE if the
+    // path to the root goes through an orphan
+    private int origin(int v) {
+        int d = 0;
+        int k = v;
+
+        while (time[k] != clock) {
+            int a = parent[k];
+
+            if (a == ORPHAN) {
+                return Integer.MAX_VALUE;
+            }
+
+            if (a == TERMINAL) {
+                time[k] = clock;
+                dist[k] = 0;
+
+                break;
+            }
+
+            d++;
+            k = up(k);
+        }
+
+        d = d + dist[k];
+
+        // the vertices of the path are marked to be checked only once
+        for (k = v; time[k] != clock; k = up(k)) {
+            time[k] = clock;
+            dist[k] = d;
+            d--;
+        }
+
+        return dist[v];
+    }
+
+    private void adopt() {
+        while (orphanCount > 0) {
+            int p = orphan[orphanFirst];
+            orphanFirst = (orphanFirst + 1) % orphan.length;
+            orphanCount--;
+            adopt(p);
+        }
+    }
+
+    private void adopt(int p) {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        int side = tree[p];
+        int best = -1;
+        int bestDist = Integer.MAX_VALUE;
+
+        // we look for a new parent in the same tree
+        for (int a = net.first[p]; a < net.first[p + 1]; a++) {
+            int q = head[a];
+            int b = (side == SOURCE) ? mate[a] : a;
+
+            if ((tree[q] == side) && (residual[b] > 0)) {
+                int d = origin(q);
+
+                if (d < bestDist) {
+                    best = b;
+                    bestDist = d;
+                }
+            }
+        }
+
+        if (best >= 0) {
+            parent[p] = best;
+            time[p] = clock;
+            dist[p] = bestDist + 1;
+
+            return;
+        }
+
+        // no parent, p is freed and its children become orphans
+        for (int a = net.first[p]; a < net.first[p + 1]; a++) {
+            int q = head[a];
+
+            if (tree[q] != side) {
+                continue;
+            }
+
+            int b = (side == SOURCE) ? mate[a] : a;
+
+            if (residual[b] > 0) {
+                activate(q);
+            }
+
+            int c = parent[q];
+
+            if ((c >= 0) && (up(q) == p)) {
+                addOrphan(q);
+            }
+        }
+
+        tree[p] = FREE;
+    }
+}
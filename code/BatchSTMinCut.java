@@ -0,0 +1,234 @@
+// ******************************************************* //
+// Min cuts of many small graphs computed on their
+// disjoint union
+//
+// ******************************************************* //
+package mascoptLib.algos.graph;
+
+// MascoptLib
+import mascoptLib.graphs.*;
+import mascoptLib.algos.digraph.AbstractMinCut;
+import mascoptLib.algos.digraph.BKMinCut;
+import mascoptLib.algos.digraph.FlowNetwork;
+
+// Java
+import java.util.*;
+
+
+/**
+ * Provides the s-t cuts min of many graphs, computed by a single run of a
+ * max-flow algorithm.
+ *
+ * The graphs are added with their two vertices (s,t), then run() builds one
+ * residual network : the disjoint union of the digraphs associated to the
+ * graphs (as in STMinCut), in which the vertices s of all graphs are a single
+ * vertex, and so are the vertices t. No path goes from a graph to another one
+ * without going through s or t, so the max flow of the union is made of the
+ * max flows of the graphs, and the vertices reachable from s in its residual
+ * network are the vertices of the min cut of every graph : the cut of a graph
+ * is the one STMinCut gives. The network is built from arrays (tails, heads
+ * and capacities of its arcs) : a run allocates them, the array of the
+ * vertices of every graph, and a single map and list used for each graph
+ * in turn to number its vertices.
+ *
+ * A vertex may belong to several graphs, it is then a different vertex of
+ * the network for each one. The algorithm is given by ENGINE; the ones which
+ * do not search the whole network for every augmenting path (as
+ * BoykovKolmogorov, Dinic or PushRelabel) suit a union of many graphs.
+ *
+ * Entries : graphs g and their two vertices (s,t).
+ * Results : vertexSetCutMin(i) returns the set of vertices which give the minimal cut of the graph i
+ *           sourceSide(i, vertices) returns the side of some vertices of the graph i
+ */
+public class BatchSTMinCut {
+    private static final int SOURCE = 0;
+    private static final int SINK = 1;
+
+    private ArrayList<Graph> graphs = new ArrayList<Graph>();
+    private ArrayList<Vertex> sources = new ArrayList<Vertex>();
+    private ArrayList<Vertex> sinks = new ArrayList<Vertex>();
+
+    // the vertices of every graph but s and t, the vertex k of the graph i
+    // being the vertex offset[i]+k of the network
+    private Vertex[][] members;
+    private int[] offset;
+    private boolean[] side;
+
+    /**
+     * The string used to search the capacity on edges.
+     */
+    public String CAPACITY = "capacity";
+
+    /**
+     * A constant for the "infinity" number.
+     */
+    public double INFINITY = Double.MAX_VALUE;
+
+    /**
+     * The max-flow algorithm run on the union.
+     */
+    public AbstractMinCut ENGINE = new BKMinCut();
+
+    /**
+     * Build the algorithm without graph.
+     */
+    public BatchSTMinCut() {
+    }
+
+    /**
+     * Adds a graph to cut.
+     * s and t are the two vertices to consider for the cut.
+     *
+     * @param g the graph
+     * @param s the first vertex
+     * @param t the second vertex
+     * @return the number of the graph, from 0
+     */
+    public int add(Graph g, Vertex s, Vertex t) {
+        graphs.add(g);
+        sources.add(s);
+        sinks.add(t);
+        side = null;
+
+        return graphs.size() - 1;
+    }
+
+    /**
+     * Returns the number of graphs added.
+     *
+     * @return an int
+     */
+    public int size() {
+        return graphs.size();
+    }
+
+    /**
+     * Removes the graphs and the results.
+     */
+    public void clear() {
+        graphs.clear();
+        sources.clear();
+        sinks.clear();
+        members = null;
+        offset = null;
+        side = null;
+    }
+
+    /**
+     * Computes the min cuts of all graphs.
+     */
+    public void run() {
+        int count = graphs.size();
+        int n = 2;
+        int arcCount = 0;
+
+        members = new Vertex[count][];
+        offset = new int[count + 1];
+
+        ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+
+        for (int i = 0; i < count; i++) {
+            vertices.clear();
+
+            Iterator itnodes = graphs.get(i).getVertexSet().iterator();
+
+            while (itnodes.hasNext()) {
+                Vertex v = (Vertex) itnodes.next();
+
+                if ((v != sources.get(i)) && (v != sinks.get(i))) {
+                    vertices.add(v);
+                }
+            }
+
+            members[i] = vertices.toArray(new Vertex[vertices.size()]);
+            offset[i] = n;
+            n = n + members[i].length;
+            arcCount = arcCount + (2 * graphs.get(i).getEdgeSet().size());
+        }
+
+        offset[count] = n;
+
+        // every edge gives 2 arcs of opposite directions and of the
+        // same capacity
+        int[] tails = new int[arcCount];
+        int[] heads = new int[arcCount];
+        double[] caps = new double[arcCount];
+        HashMap<Vertex, Integer> index = new HashMap<Vertex, Integer>();
+        int k = 0;
+
+        for (int i = 0; i < count; i++) {
+            index.clear();
+            index.put(sources.get(i), SOURCE);
+            index.put(sinks.get(i), SINK);
+
+            for (int j = 0; j < members[i].length; j++) {
+                index.put(members[i][j], offset[i] + j);
+            }
+
+            Iterator ites = graphs.get(i).getEdgeSet().iterator();
+
+            while (ites.hasNext()) {
+                Edge currentEdge = (Edge) ites.next();
+                Vertex[] ext = currentEdge.getVertices();
+                double cap = currentEdge.getDouValue(CAPACITY);
+                int first = index.get(ext[0]);
+                int second = index.get(ext[1]);
+
+                tails[k] = first;
+                heads[k] = second;
+                caps[k++] = cap;
+                tails[k] = second;
+                heads[k] = first;
+                caps[k++] = cap;
+            }
+        }
+
+        FlowNetwork network = new FlowNetwork(n, SOURCE, SINK, tails, heads,
+                caps, INFINITY);
+        side = ENGINE.sourceSide(network);
+    }
+
+    /**
+     * Returns the set for the min cut of a graph.
+     *
+     * @param i the number of the graph
+     * @return a vertex set
+     */
+    public VertexSet vertexSetCutMin(int i) {
+        VertexSet nodecutmin = new VertexSet();
+
+        if (side == null) {
+            this.run();
+        }
+
+        nodecutmin.add(sources.get(i));
+
+        for (int j = 0; j < members[i].length; j++) {
+            if (side[offset[i] + j]) {
+                nodecutmin.add(members[i][j]);
+            }
+        }
+
+        return nodecutmin;
+    }
+
+    /**
+     * Returns the side of the min cut of some vertices of a graph.
+     *
+     * @param i the number of the graph
+     * @param vertices the vertices to consider (an element may be null)
+     * @return a bit set, the bit j being set if vertices[j] is on the side of s
+     */
+    public BitSet sourceSide(int i, Vertex[] vertices) {
+        BitSet result = new BitSet(vertices.length);
+        VertexSet nodecutmin = this.vertexSetCutMin(i);
+
+        for (int j = 0; j < vertices.length; j++) {
+            if ((vertices[j] != null) && nodecutmin.contains(vertices[j])) {
+                result.set(j);
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+// ******************************************************* //
+// Edmonds-Karp Algorithm on a compressed sparse row
+// residual network
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph
+ *
+ * The algorithm is the one of {@link MinCut} (Edmonds-Karp : a breadth first
+ * search from s finds a shortest augmenting path, which is saturated) but it
+ * works on the arrays of a {@link FlowNetwork} instead of the mascopt
+ * objects : the vertices are numbered, the flow is kept in the residual
+ * capacities of the arcs and of their mates, and the search uses an int
+ * queue and a mark by search, so that no object is created once the network
+ * is built.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class CSRMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "EdmondsKarpCSR";
+
+    FlowNetwork net;
+
+    // the residual arc by which a vertex was reached
+    private int[] pred;
+    private int[] mark;
+    private int stamp;
+    private int[] queue;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public CSRMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public CSRMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        return copyTo(new CSRMinCut());
+    }
+
+    void augment(FlowNetwork fn) {
+        prepare(fn);
+        saturate(Double.MIN_VALUE);
+        net = null;
+    }
+
+    /**
+     * Gives the network to work on and allocates the work arrays, unless
+     * the ones of the last network are large enough.
+     *
+     * @param fn the residual network
+     */
+    void prepare(FlowNetwork fn) {
+        int n = fn.n;
+
+        net = fn;
+
+        if ((mark == null) || (mark.length < n)) {
+            pred = new int[n];
+            mark = new int[n];
+            queue = new int[n];
+        } else {
+            Arrays.fill(mark, 0, n, 0);
+        }
+
+        stamp = 0;
+    }
+
+    /**
+     * Augments the flow along shortest paths whose residual capacities are
+     * at least bound, until there is no such path.
+     *
+     * @param bound the smallest residual capacity used
+     */
+    void saturate(double bound) {
+        while (search(bound)) {
+            push();
+        }
+    }
+
+    // a shortest path of residual capacities at least bound, returns true
+    // if t is reached, the path being given by pred
+    private boolean search(double bound) {
+        int[] first = net.first;
+        int[] head = net.head;
+        double[] residual = net.residual;
+        int sink = net.sink;
+        int qhead = 0;
+        int qtail = 0;
+
+        stamp++;
+        mark[net.source] = stamp;
+        queue[qtail++] = net.source;
+
+        while (qhead < qtail) {
+            int v = queue[qhead++];
+
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+
+                if ((residual[a] >= bound) && (mark[w] != stamp)) {
+                    mark[w] = stamp;
+                    pred[w] = a;
+
+                    if (w == sink) {
+                        return true;
+                    }
+
+                    queue[qtail++] = w;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void push() {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        double delta = Double.MAX_VALUE;
+
+        for (int v = net.sink; v != net.source; v = head[mate[pred[v]]]) {
+            delta = Math.min(delta, residual[pred[v]]);
+        }
+
+        for (int v = net.sink; v != net.source; v = head[mate[pred[v]]]) {
+            int a = pred[v];
+            residual[a] -= delta;
+            residual[mate[a]] += delta;
+        }
+    }
+}
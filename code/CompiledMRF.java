@@ -0,0 +1,267 @@
+package in.ac.iitb.cfilt.context.helper;
+
+/**
+ * <p>Class	: CompiledMRF
+ * <p>Purpose	: This class is an immutable copy of an MRF graph, made of
+ * arrays : the energies of all nodes are in one array, node after node, the
+ * energies of all edges in another one, edge after edge, and the edges of
+ * every node are listed in compressed rows (CSR). It is never changed once
+ * built, so any number of threads may read it at once without copying it.
+ * <p>The nodes are numbered by their node index, the edges in the order of
+ * the graph. The energies are the ones of the graph when it is compiled.
+ */
+public class CompiledMRF {
+
+	/**
+	 * This field stores the energies of the node i, which are
+	 * m_nodeEnergies[m_labelStart[i]] .. m_nodeEnergies[m_labelStart[i+1]-1]
+	 */
+	private final int[] m_labelStart;
+	/**
+	 * This field stores the energies of all nodes
+	 */
+	private final double[] m_nodeEnergies;
+	/**
+	 * This field stores the node index of the first node of each edge
+	 */
+	private final int[] m_firstNode;
+	/**
+	 * This field stores the node index of the second node of each edge
+	 */
+	private final int[] m_secondNode;
+	/**
+	 * This field stores the energies of the edge e, which are
+	 * m_edgeEnergies[m_energyStart[e]] .. m_edgeEnergies[m_energyStart[e+1]-1]
+	 */
+	private final int[] m_energyStart;
+	/**
+	 * This field stores the energies of all edges
+	 */
+	private final double[] m_edgeEnergies;
+	/**
+	 * This field stores the edges of the node i, which are
+	 * m_incidentEdges[m_incidenceStart[i]] .. m_incidentEdges[m_incidenceStart[i+1]-1]
+	 */
+	private final int[] m_incidenceStart;
+	/**
+	 * This field stores the edges of all nodes
+	 */
+	private final int[] m_incidentEdges;
+	/**
+	 * This field stores the node at the other end of each edge of
+	 * m_incidentEdges
+	 */
+	private final int[] m_neighbours;
+	/**
+	 * This field stores the largest number of labels of a node
+	 */
+	private final int m_maxLabelCount;
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param mrfGraph
+	 */
+	public CompiledMRF(MRFGraph mrfGraph) {
+		int size = mrfGraph.getNodes().size();
+		int edgeCount = mrfGraph.getEdges().size();
+		int[] next = new int[size];
+		int maxLabelCount = 0;
+		int e = 0;
+		double[] energies = null;
+
+		m_labelStart = new int[size + 1];
+		for (MRFNode node : mrfGraph.getNodes()) {
+			m_labelStart[node.getNodeIndex() + 1] = node.getLabelCount();
+			maxLabelCount = Math.max(maxLabelCount, node.getLabelCount());
+		}
+		for (int i = 0; i < size; i++) {
+			m_labelStart[i + 1] += m_labelStart[i];
+		}
+		m_maxLabelCount = maxLabelCount;
+		m_nodeEnergies = new double[m_labelStart[size]];
+		for (MRFNode node : mrfGraph.getNodes()) {
+			energies = node.getEnergyArray();
+			System.arraycopy(energies, 0, m_nodeEnergies, m_labelStart[node.getNodeIndex()], energies.length);
+		}
+
+		m_firstNode = new int[edgeCount];
+		m_secondNode = new int[edgeCount];
+		m_energyStart = new int[edgeCount + 1];
+		m_incidenceStart = new int[size + 1];
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			m_firstNode[e] = edge.getFirstNode().getNodeIndex();
+			m_secondNode[e] = edge.getSecondNode().getNodeIndex();
+			m_energyStart[e + 1] = m_energyStart[e] + edge.getEnergyArray().length;
+			m_incidenceStart[m_firstNode[e] + 1]++;
+			m_incidenceStart[m_secondNode[e] + 1]++;
+			e++;
+		}
+		m_edgeEnergies = new double[m_energyStart[edgeCount]];
+		e = 0;
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			energies = edge.getEnergyArray();
+			System.arraycopy(energies, 0, m_edgeEnergies, m_energyStart[e++], energies.length);
+		}
+
+		for (int i = 0; i < size; i++) {
+			m_incidenceStart[i + 1] += m_incidenceStart[i];
+		}
+		System.arraycopy(m_incidenceStart, 0, next, 0, size);
+		m_incidentEdges = new int[2 * edgeCount];
+		m_neighbours = new int[2 * edgeCount];
+		for (e = 0; e < edgeCount; e++) {
+			m_incidentEdges[next[m_firstNode[e]]] = e;
+			m_neighbours[next[m_firstNode[e]]++] = m_secondNode[e];
+			m_incidentEdges[next[m_secondNode[e]]] = e;
+			m_neighbours[next[m_secondNode[e]]++] = m_firstNode[e];
+		}
+	}
+
+	/**
+	 * <p>Method 	: size
+	 * <p>Purpose	: Returns the number of nodes
+	 * <p>@return int
+	 */
+	public int size() {
+		return m_labelStart.length - 1;
+	}
+
+	/**
+	 * <p>Method 	: getEdgeCount
+	 * <p>Purpose	: Returns the number of edges
+	 * <p>@return int
+	 */
+	public int getEdgeCount() {
+		return m_firstNode.length;
+	}
+
+	/**
+	 * <p>Method 	: getLabelCount
+	 * <p>Purpose	: Returns the number of labels of a node
+	 * <p>@param node
+	 * <p>@return int
+	 */
+	public int getLabelCount(int node) {
+		return m_labelStart[node + 1] - m_labelStart[node];
+	}
+
+	/**
+	 * <p>Method 	: getMaxLabelCount
+	 * <p>Purpose	: Returns the largest number of labels of a node, the
+	 * maxAlpha of the graph
+	 * <p>@return int
+	 */
+	public int getMaxLabelCount() {
+		return m_maxLabelCount;
+	}
+
+	/**
+	 * <p>Method 	: getEnergy
+	 * <p>Purpose	: Returns the energy of a label of a node, infinite if the
+	 * node does not have the label (see {@link MRFNode#getEnergy(int)})
+	 * <p>@param node
+	 * <p>@param label
+	 * <p>@return double
+	 */
+	public double getEnergy(int node, int label) {
+		if (label >= m_labelStart[node + 1] - m_labelStart[node]) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return m_nodeEnergies[m_labelStart[node] + label];
+	}
+
+	/**
+	 * <p>Method 	: getFirstNode
+	 * <p>Purpose	: Returns the node index of the first node of an edge
+	 * <p>@param edge
+	 * <p>@return int
+	 */
+	public int getFirstNode(int edge) {
+		return m_firstNode[edge];
+	}
+
+	/**
+	 * <p>Method 	: getSecondNode
+	 * <p>Purpose	: Returns the node index of the second node of an edge
+	 * <p>@param edge
+	 * <p>@return int
+	 */
+	public int getSecondNode(int edge) {
+		return m_secondNode[edge];
+	}
+
+	/**
+	 * <p>Method 	: getEdgeEnergy
+	 * <p>Purpose	: Returns the energy of a pair of labels of the nodes of an
+	 * edge (see {@link MRFEdge#getEnergy(int, int)})
+	 * <p>@param edge
+	 * <p>@param firstLabel
+	 * <p>@param secondLabel
+	 * <p>@return double
+	 */
+	public double getEdgeEnergy(int edge, int firstLabel, int secondLabel) {
+		return m_edgeEnergies[m_energyStart[edge] + firstLabel * getLabelCount(m_secondNode[edge]) + secondLabel];
+	}
+
+	/**
+	 * <p>Method 	: getDegree
+	 * <p>Purpose	: Returns the number of edges of a node
+	 * <p>@param node
+	 * <p>@return int
+	 */
+	public int getDegree(int node) {
+		return m_incidenceStart[node + 1] - m_incidenceStart[node];
+	}
+
+	/**
+	 * <p>Method 	: getIncidenceStart
+	 * <p>Purpose	: Returns the position of the first edge of a node, the
+	 * edges of the node i being at the positions getIncidenceStart(i) ..
+	 * getIncidenceStart(i+1)-1 of getIncidentEdge and getNeighbour
+	 * <p>@param node
+	 * <p>@return int
+	 */
+	public int getIncidenceStart(int node) {
+		return m_incidenceStart[node];
+	}
+
+	/**
+	 * <p>Method 	: getIncidentEdge
+	 * <p>Purpose	: Returns the edge at a position of the incidence lists
+	 * <p>@param position
+	 * <p>@return int
+	 */
+	public int getIncidentEdge(int position) {
+		return m_incidentEdges[position];
+	}
+
+	/**
+	 * <p>Method 	: getNeighbour
+	 * <p>Purpose	: Returns the other end of the edge at a position of the
+	 * incidence lists
+	 * <p>@param position
+	 * <p>@return int
+	 */
+	public int getNeighbour(int position) {
+		return m_neighbours[position];
+	}
+
+	/**
+	 * <p>Method 	: getScore
+	 * <p>Purpose	: Returns the score of an assignment, as
+	 * {@link AlphaExpander#expand(MRFGraph, java.util.Vector, int)} computes
+	 * it : the energies of the labels of the ends of every edge, an infinite
+	 * energy counting as 1
+	 * <p>@param labels the label of each node
+	 * <p>@return double
+	 */
+	public double getScore(int[] labels) {
+		double score = 0.0;
+		for (int e = 0; e < m_firstNode.length; e++) {
+			score += AlphaExpander.getNodeScore(getEnergy(m_firstNode[e], labels[m_firstNode[e]]));
+			score += AlphaExpander.getNodeScore(getEnergy(m_secondNode[e], labels[m_secondNode[e]]));
+		}
+		return score;
+	}
+}
@@ -0,0 +1,178 @@
+// ******************************************************* //
+// Dinic Algorithm
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph
+ *
+ * The algorithm used is Dinic's algorithm. Each phase computes the level
+ * graph by a breadth first search from s and then a blocking flow in it by
+ * depth first searches, each vertex keeping the current arc from which its
+ * search goes on. All the shortest augmenting paths of a given length are
+ * thus saturated in one phase, where {@link MinCut} does one search by path.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class DinicMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "Dinic";
+
+    private FlowNetwork net;
+    private int[] level;
+    private int[] current;
+    private int[] queue;
+    private int[] path;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public DinicMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public DinicMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        return copyTo(new DinicMinCut());
+    }
+
+    void augment(FlowNetwork fn) {
+        int n = fn.n;
+
+        net = fn;
+        level = new int[n];
+        current = new int[n];
+        queue = new int[n];
+        path = new int[n];
+
+        while (levels()) {
+            System.arraycopy(fn.first, 0, current, 0, n);
+            blockingFlow();
+        }
+
+        net = null;
+    }
+
+    // the level graph, returns true if t is reached
+    private boolean levels() {
+        int[] first = net.first;
+        int[] head = net.head;
+        double[] residual = net.residual;
+        int qhead = 0;
+        int qtail = 0;
+
+        Arrays.fill(level, -1);
+        level[net.source] = 0;
+        queue[qtail++] = net.source;
+
+        while (qhead < qtail) {
+            int v = queue[qhead++];
+
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+
+                if ((residual[a] > 0) && (level[w] < 0)) {
+                    level[w] = level[v] + 1;
+                    queue[qtail++] = w;
+                }
+            }
+        }
+
+        return level[net.sink] >= 0;
+    }
+
+    private void blockingFlow() {
+        int[] first = net.first;
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        int depth = 0;
+        int v = net.source;
+
+        while (true) {
+            if (v == net.sink) {
+                double delta = residual[path[0]];
+
+                for (int i = 1; i < depth; i++) {
+                    delta = Math.min(delta, residual[path[i]]);
+                }
+
+                int saturated = -1;
+
+                for (int i = 0; i < depth; i++) {
+                    int a = path[i];
+                    residual[a] -= delta;
+                    residual[mate[a]] += delta;
+
+                    if ((saturated < 0) && (residual[a] <= 0)) {
+                        saturated = i;
+                    }
+                }
+
+                // the search goes on from the tail of the first saturated arc
+                depth = saturated;
+                v = head[mate[path[depth]]];
+
+                continue;
+            }
+
+            int a;
+
+            for (a = current[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+
+                if ((residual[a] > 0) && (level[w] == level[v] + 1)) {
+                    break;
+                }
+            }
+
+            current[v] = a;
+
+            if (a < first[v + 1]) {
+                path[depth++] = a;
+                v = head[a];
+            } else {
+                // dead end, v is removed from the level graph
+                if (v == net.source) {
+                    break;
+                }
+
+                level[v] = -1;
+                depth--;
+                v = head[mate[path[depth]]];
+                current[v]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,307 @@
+// ******************************************************* //
+// Dynamic graph cuts (Kohli-Torr) on the
+// Boykov-Kolmogorov Algorithm
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a sequence of simple directed graphs which only differ by their capacities.
+ *
+ * The first graph is solved by the algorithm of {@link BKMinCut}. When the
+ * next graph is given (vertexSetCutMin(g, s, t, capacity)) and has the same
+ * vertices and the same arcs (the arcs being identified by their tail and
+ * their head), the residual network and the flow of the previous run are
+ * kept : the new capacities are set, the flow is cut down on the arcs whose
+ * capacity became smaller than their flow, and the excess (or the deficit)
+ * this leaves on a vertex v is given back through the arcs s->v and v->t.
+ * When these arcs can not carry it, the capacities of both are raised by
+ * the same amount, which adds a constant to the value of every cut and so
+ * does not change the min cuts (method of Kohli and Torr). The max flow is
+ * then computed from this flow, which is close to the final one when the
+ * capacities changed little.
+ *
+ * Otherwise (other vertices or arcs, parallel arcs, a vertex without one
+ * of its arcs to s and t, or an old or new capacity bounded by INFINITY),
+ * the network is built again with a null flow.
+ *
+ * The source set is the set of vertices reachable from s in the residual
+ * network, so it is the one of {@link MinCut} for every graph.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t, then the next digraphs.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class DynamicMinCut extends BKMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "Dynamic";
+
+    private static final int NONE = -1;
+
+    // the forward residual arc of every pair (tail, head), null when the
+    // network can not be kept
+    private HashMap<Long, Integer> forward;
+
+    // the forward residual arcs s->v and v->t
+    private int[] sourceArc;
+    private int[] sinkArc;
+
+    // the constant added to the cuts by the last update
+    private double shift = 0.0;
+    private int reuses = 0;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public DynamicMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public DynamicMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        return copyTo(new DynamicMinCut());
+    }
+
+    /**
+     * Returns the number of runs which started from the flow of the
+     * previous one.
+     *
+     * @return an int
+     */
+    public int reuseCount() {
+        return reuses;
+    }
+
+    FlowNetwork buildNetwork() {
+        if ((network != null) && (forward != null) && update(network)) {
+            reuses++;
+
+            return network;
+        }
+
+        FlowNetwork fn = super.buildNetwork();
+        shift = 0.0;
+        index(fn);
+
+        return fn;
+    }
+
+    /**
+     * Returns the value of the max flow, without the constant added
+     * to the cuts.
+     *
+     * @return a double
+     */
+    public double maxFlowValue() {
+        return network.flowValue() - shift;
+    }
+
+    private void index(FlowNetwork fn) {
+        int n = fn.n;
+
+        forward = new HashMap<Long, Integer>(fn.m);
+        sourceArc = new int[n];
+        sinkArc = new int[n];
+        Arrays.fill(sourceArc, NONE);
+        Arrays.fill(sinkArc, NONE);
+
+        for (int v = 0; v < n; v++) {
+            for (int a = fn.first[v]; a < fn.first[v + 1]; a++) {
+                if (!fn.forward[a]) {
+                    continue;
+                }
+
+                int w = fn.head[a];
+
+                if (forward.put(key(fn, v, w), a) != null) {
+                    forward = null;
+
+                    return;
+                }
+
+                if (v == fn.source) {
+                    sourceArc[w] = a;
+                }
+
+                if (w == fn.sink) {
+                    sinkArc[v] = a;
+                }
+            }
+        }
+
+        for (int v = 0; v < n; v++) {
+            if ((v != fn.source) && (v != fn.sink) &&
+                    ((sourceArc[v] == NONE) || (sinkArc[v] == NONE))) {
+                forward = null;
+
+                return;
+            }
+        }
+    }
+
+    private static long key(FlowNetwork fn, int tail, int head) {
+        return ((long) tail * fn.n) + head;
+    }
+
+    // sets the capacities of the new graph, returns false if its topology
+    // is not the one of the network
+    private boolean update(FlowNetwork fn) {
+        VertexSet vertices = g_.getVertexSet();
+        ArcSet arcs = g_.getArcSet();
+
+        if ((vertices.size() != fn.n) || (arcs.size() != (fn.m / 2)) ||
+                (fn.indexOf(s_) != fn.source) || (fn.indexOf(t_) != fn.sink)) {
+            return false;
+        }
+
+        Iterator itnodes = vertices.iterator();
+
+        while (itnodes.hasNext()) {
+            if (fn.indexOf((Vertex) itnodes.next()) < 0) {
+                return false;
+            }
+        }
+
+        int[] found = new int[arcs.size()];
+        Arc[] newArcs = new Arc[arcs.size()];
+        double[] newCaps = new double[arcs.size()];
+        boolean[] seen = new boolean[fn.m];
+        Iterator itarcs = arcs.iterator();
+
+        for (int k = 0; itarcs.hasNext(); k++) {
+            Arc curarc = (Arc) itarcs.next();
+            Integer a = forward.get(key(fn, fn.indexOf(curarc.getTail()),
+                        fn.indexOf(curarc.getHead())));
+
+            if ((a == null) || seen[a]) {
+                return false;
+            }
+
+            double cap = FlowNetwork.bound(curarc.getDouValue(CAPACITY), INFINITY);
+
+            // a flow kept on an arc bounded by INFINITY, or cut down from
+            // it, could not be given back exactly
+            if ((cap >= INFINITY) || (fn.capacity[a] >= INFINITY)) {
+                return false;
+            }
+
+            seen[a] = true;
+            found[k] = a;
+            newArcs[k] = curarc;
+            newCaps[k] = cap;
+        }
+
+        // the new capacities, the flow being cut down where needed
+        double[] excess = new double[fn.n];
+
+        for (int k = 0; k < found.length; k++) {
+            int a = found[k];
+            int b = fn.mate[a];
+            double cap = newCaps[k];
+            double flow = fn.residual[b];
+
+            fn.arc[a] = newArcs[k];
+            fn.capacity[a] = cap;
+
+            if (flow <= cap) {
+                fn.residual[a] = cap - flow;
+            } else {
+                fn.residual[a] = 0.0;
+                fn.residual[b] = cap;
+                excess[fn.head[b]] += flow - cap;
+                excess[fn.head[a]] -= flow - cap;
+            }
+        }
+
+        shift = 0.0;
+
+        for (int v = 0; v < fn.n; v++) {
+            if ((v == fn.source) || (v == fn.sink)) {
+                continue;
+            }
+
+            if (excess[v] > 0) {
+                drain(fn, v, excess[v]);
+            } else if (excess[v] < 0) {
+                fill(fn, v, -excess[v]);
+            }
+        }
+
+        return true;
+    }
+
+    // sends the excess of v back to s or on to t
+    private void drain(FlowNetwork fn, int v, double excess) {
+        int sa = sourceArc[v];
+        int ta = sinkArc[v];
+        double delta = Math.min(excess, fn.residual[fn.mate[sa]]);
+
+        move(fn, fn.mate[sa], delta);
+        excess -= delta;
+        delta = Math.min(excess, fn.residual[ta]);
+        move(fn, ta, delta);
+        excess -= delta;
+
+        if (excess > 0) {
+            fn.capacity[ta] += excess;
+            fn.residual[fn.mate[ta]] += excess;
+            fn.capacity[sa] += excess;
+            fn.residual[sa] += excess;
+            shift += excess;
+        }
+    }
+
+    // brings the flow missing in v from s or back from t
+    private void fill(FlowNetwork fn, int v, double deficit) {
+        int sa = sourceArc[v];
+        int ta = sinkArc[v];
+        double delta = Math.min(deficit, fn.residual[fn.mate[ta]]);
+
+        move(fn, fn.mate[ta], delta);
+        deficit -= delta;
+        delta = Math.min(deficit, fn.residual[sa]);
+        move(fn, sa, delta);
+        deficit -= delta;
+
+        if (deficit > 0) {
+            fn.capacity[sa] += deficit;
+            fn.residual[fn.mate[sa]] += deficit;
+            fn.capacity[ta] += deficit;
+            fn.residual[ta] += deficit;
+            shift += deficit;
+        }
+    }
+
+    private static void move(FlowNetwork fn, int a, double delta) {
+        fn.residual[a] -= delta;
+        fn.residual[fn.mate[a]] += delta;
+    }
+}
@@ -0,0 +1,71 @@
+// ******************************************************* //
+// Edmonds-Karp Algorithm as a MaxFlowSolver
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+
+
+/**
+ * Provides the algorithm of {@link MinCut} (Edmonds-Karp) as a
+ * {@link MaxFlowSolver}. A new MinCut is run for every cut.
+ *
+ * It is necessary to define the value of the variable INFINITY
+ * if some capacity is greater than the default value.
+ *
+ * Entries : a digraph, two vertices s and t and the name of the capacities.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ */
+public class EdmondsKarpMinCut implements MaxFlowSolver {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "EdmondsKarp";
+
+    /**
+     * The constant for infinity.
+     */
+    public double INFINITY = Double.MAX_VALUE;
+
+    /**
+     * Constructor for the solver.
+     */
+    public EdmondsKarpMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public VertexSet vertexSetCutMin(DiGraph g, Vertex s, Vertex t,
+        String capacity) {
+        MinCut cut = new MinCut(g, s, t);
+        cut.CAPACITY = capacity;
+        cut.INFINITY = INFINITY;
+        cut.run();
+
+        return cut.vertexSetCutMin();
+    }
+
+    public VertexSet vertexSetCutMin(DiGraph g, Vertex s, Vertex t,
+        String capacity, double infinity) {
+        MinCut cut = new MinCut(g, s, t);
+        cut.CAPACITY = capacity;
+        cut.INFINITY = infinity;
+        cut.run();
+
+        return cut.vertexSetCutMin();
+    }
+
+    public MaxFlowSolver copy() {
+        EdmondsKarpMinCut result = new EdmondsKarpMinCut();
+        result.INFINITY = INFINITY;
+
+        return result;
+    }
+}
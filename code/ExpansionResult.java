@@ -0,0 +1,119 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import java.util.Vector;
+
+/**
+ * <p>Class	: ExpansionResult
+ * <p>Purpose	: This class holds the result of an expansion which may stop
+ * before convergence : the best assignment found, its score, the number of
+ * sweeps done and the reason why the expansion stopped.
+ */
+public class ExpansionResult {
+
+	/**
+	 * <p>Enum	: Status
+	 * <p>Purpose	: The reasons why an expansion stops
+	 */
+	public enum Status {
+		/**
+		 * No move lowers the score any more
+		 */
+		CONVERGED,
+		/**
+		 * The deadline is passed
+		 */
+		DEADLINE,
+		/**
+		 * The last sweep lowered the score by less than the tolerance
+		 */
+		TOLERANCE,
+		/**
+		 * The maximum number of sweeps is done
+		 */
+		MAX_SWEEPS,
+		/**
+		 * The expansion was cancelled or its thread interrupted
+		 */
+		CANCELLED
+	}
+
+	/**
+	 * This field stores the best assignment found
+	 */
+	private Vector<Integer> m_assignment;
+	/**
+	 * This field stores the score of the assignment
+	 */
+	private double m_score;
+	/**
+	 * This field stores the number of sweeps started (or rounds of a
+	 * {@link LabelScheduler}), the last one included even if it was stopped
+	 */
+	private int m_sweeps;
+	/**
+	 * This field stores the reason why the expansion stopped
+	 */
+	private Status m_status;
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param assignment
+	 * @param score
+	 * @param sweeps
+	 * @param status
+	 */
+	public ExpansionResult(Vector<Integer> assignment, double score, int sweeps, Status status) {
+		m_assignment = assignment;
+		m_score = score;
+		m_sweeps = sweeps;
+		m_status = status;
+	}
+
+	/**
+	 * <p>Method 	: getAssignment
+	 * <p>Purpose	: Returns the best assignment found
+	 * <p>@return Vector<Integer>
+	 */
+	public Vector<Integer> getAssignment() {
+		return m_assignment;
+	}
+
+	/**
+	 * <p>Method 	: getScore
+	 * <p>Purpose	: Returns the score of the assignment
+	 * <p>@return double
+	 */
+	public double getScore() {
+		return m_score;
+	}
+
+	/**
+	 * <p>Method 	: getSweeps
+	 * <p>Purpose	: Returns the number of sweeps started, the last one
+	 * included even if it was stopped
+	 * <p>@return int
+	 */
+	public int getSweeps() {
+		return m_sweeps;
+	}
+
+	/**
+	 * <p>Method 	: getStatus
+	 * <p>Purpose	: Returns the reason why the expansion stopped
+	 * <p>@return Status
+	 */
+	public Status getStatus() {
+		return m_status;
+	}
+
+	/**
+	 * <p>Method 	: isConverged
+	 * <p>Purpose	: Returns true if the expansion ran until no move lowered
+	 * the score
+	 * <p>@return boolean
+	 */
+	public boolean isConverged() {
+		return m_status == Status.CONVERGED;
+	}
+}
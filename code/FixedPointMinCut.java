@@ -0,0 +1,185 @@
+// ******************************************************* //
+// Edmonds-Karp Algorithm on fixed-point capacities
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph, in exact integer arithmetic.
+ *
+ * The capacities are rounded to a whole number of units and the max flow is
+ * computed on these long values by the algorithm of {@link CSRMinCut}
+ * (Edmonds-Karp). The unit is RESOLUTION, or more when the largest finite
+ * capacity times the number of arcs would not fit in 2^60 units, so that
+ * the sum of the finite capacities can not overflow. A residual capacity is
+ * then either 0 or at least one unit : the differences of energies which
+ * should be 0 but are left by the floating point arithmetic are 0, and no
+ * augmentation carries a meaningless amount. The cut is a min cut of the
+ * rounded capacities, the one of {@link MinCut} when the capacities are
+ * multiples of the unit. The capacities bounded by INFINITY are given one
+ * unit more than the sum of the finite ones, so that no min cut with a
+ * finite value uses them.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class FixedPointMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "FixedPoint";
+
+    /**
+     * The smallest value of the unit of capacity.
+     */
+    public double RESOLUTION = 1e-9;
+
+    // the number of units the largest finite capacity times the number of
+    // arcs must fit in
+    private static final double UNITS = (double) (1L << 60);
+
+    private FlowNetwork net;
+    private long[] residual;
+    private int[] pred;
+    private int[] mark;
+    private int stamp;
+    private int[] queue;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public FixedPointMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public FixedPointMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        FixedPointMinCut result = new FixedPointMinCut();
+        result.RESOLUTION = RESOLUTION;
+
+        return copyTo(result);
+    }
+
+    void augment(FlowNetwork fn) {
+        int n = fn.n;
+        double largest = 0.0;
+
+        for (int a = 0; a < fn.m; a++) {
+            if (fn.residual[a] < INFINITY) {
+                largest = Math.max(largest, fn.residual[a]);
+            }
+        }
+
+        double unit = Math.max(RESOLUTION, (largest / UNITS) * (fn.m + 1));
+        long infinite = 1;
+
+        net = fn;
+        residual = new long[fn.m];
+        pred = new int[n];
+        mark = new int[n];
+        stamp = 0;
+        queue = new int[n];
+
+        for (int a = 0; a < fn.m; a++) {
+            if (fn.residual[a] < INFINITY) {
+                residual[a] = Math.round(fn.residual[a] / unit);
+                infinite = infinite + residual[a];
+            }
+        }
+
+        for (int a = 0; a < fn.m; a++) {
+            if (fn.residual[a] >= INFINITY) {
+                residual[a] = infinite;
+            }
+        }
+
+        while (search()) {
+            push();
+        }
+
+        // the flow is given back to the network
+        for (int a = 0; a < fn.m; a++) {
+            fn.residual[a] = residual[a] * unit;
+        }
+
+        net = null;
+        residual = null;
+    }
+
+    // a shortest augmenting path, returns true if t is reached, the path
+    // being given by pred
+    private boolean search() {
+        int[] first = net.first;
+        int[] head = net.head;
+        int sink = net.sink;
+        int qhead = 0;
+        int qtail = 0;
+
+        stamp++;
+        mark[net.source] = stamp;
+        queue[qtail++] = net.source;
+
+        while (qhead < qtail) {
+            int v = queue[qhead++];
+
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+
+                if ((residual[a] > 0) && (mark[w] != stamp)) {
+                    mark[w] = stamp;
+                    pred[w] = a;
+
+                    if (w == sink) {
+                        return true;
+                    }
+
+                    queue[qtail++] = w;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void push() {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        long delta = Long.MAX_VALUE;
+
+        for (int v = net.sink; v != net.source; v = head[mate[pred[v]]]) {
+            delta = Math.min(delta, residual[pred[v]]);
+        }
+
+        for (int v = net.sink; v != net.source; v = head[mate[pred[v]]]) {
+            int a = pred[v];
+            residual[a] -= delta;
+            residual[mate[a]] += delta;
+        }
+    }
+}
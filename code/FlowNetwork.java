@@ -0,0 +1,390 @@
+// ******************************************************* //
+// Residual network in compressed sparse row form
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides the residual network of a simple directed graph as plain arrays,
+ * for the max-flow algorithms which should not work on the mascopt objects.
+ *
+ * The vertices are numbered from 0 in the order of the vertex set. Every arc
+ * of the digraph gives two residual arcs : the forward one, whose residual
+ * capacity is the capacity of the arc minus its flow, and the backward one
+ * (its mate), whose residual capacity is the flow. The residual arcs leaving
+ * the vertex v are first[v] .. first[v+1]-1.
+ *
+ * The capacities are read once, with the name CAPACITY, when the network is
+ * built. A capacity greater than INFINITY is bounded by INFINITY and a
+ * negative (or undefined) capacity is considered as 0.
+ *
+ * A network may also be given by arrays (tails, heads and capacities of the
+ * arcs), for instance to join several graphs into one : its vertices and
+ * arcs are then not mascopt objects, vertexSet() and arcSet() ignore them.
+ * Such a network may be set again with other arcs (set()), which reuses its
+ * arrays instead of building a new network for every graph.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : sourceSide() returns the vertices reachable from s in the residual network
+ *           vertexSet() and arcSet() convert a side back to mascopt sets
+ */
+public class FlowNetwork {
+    int n;
+    int m;
+    int source;
+    int sink;
+    int[] first;
+    int[] head;
+    int[] mate;
+    double[] capacity;
+    double[] residual;
+
+    // true for a forward residual arc, false for a backward one
+    boolean[] forward;
+
+    // the arc of the digraph for a forward residual arc, null for a backward
+    // one or when the network is given by arrays
+    Arc[] arc;
+    Vertex[] vertex;
+    private HashMap<Vertex, Integer> index;
+
+    // the work array of the counting sort
+    private int[] next;
+
+    /**
+     * Builds the residual network of a digraph, the flow equals 0.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param capacityName the name of the capacities on the arcs
+     * @param infinity the bound on the capacities
+     */
+    public FlowNetwork(DiGraph g, Vertex s, Vertex t, String capacityName,
+        double infinity) {
+        ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+        Iterator itnodes = g.getVertexSet().iterator();
+
+        while (itnodes.hasNext()) {
+            vertices.add((Vertex) itnodes.next());
+        }
+
+        n = vertices.size();
+        vertex = vertices.toArray(new Vertex[n]);
+        index = new HashMap<Vertex, Integer>(2 * n);
+
+        for (int v = 0; v < n; v++) {
+            index.put(vertex[v], v);
+        }
+
+        source = index.get(s);
+        sink = index.get(t);
+
+        ArrayList<Arc> arcs = new ArrayList<Arc>();
+        Iterator itarcs = g.getArcSet().iterator();
+
+        while (itarcs.hasNext()) {
+            arcs.add((Arc) itarcs.next());
+        }
+
+        int arcCount = arcs.size();
+        int[] tails = new int[arcCount];
+        int[] heads = new int[arcCount];
+        double[] caps = new double[arcCount];
+
+        for (int k = 0; k < arcCount; k++) {
+            Arc curarc = arcs.get(k);
+            tails[k] = index.get(curarc.getTail());
+            heads[k] = index.get(curarc.getHead());
+            caps[k] = curarc.getDouValue(capacityName);
+        }
+
+        build(tails, heads, caps, arcs.toArray(new Arc[arcCount]), arcCount,
+            infinity);
+    }
+
+    /**
+     * Builds the residual network of arcs given by arrays, the flow equals 0.
+     *
+     * @param n the number of vertices, numbered from 0
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param tails the tail of every arc
+     * @param heads the head of every arc
+     * @param capacities the capacity of every arc
+     * @param infinity the bound on the capacities
+     */
+    public FlowNetwork(int n, int s, int t, int[] tails, int[] heads,
+        double[] capacities, double infinity) {
+        this();
+        set(n, s, t, tails, heads, capacities, tails.length, infinity);
+    }
+
+    /**
+     * Builds an empty network, to be given its arcs by set().
+     */
+    public FlowNetwork() {
+        vertex = new Vertex[0];
+        index = new HashMap<Vertex, Integer>();
+    }
+
+    /**
+     * Gives new arcs to this network, given by arrays, the flow equals 0.
+     * The arrays of the network are kept when they are large enough, so
+     * that a network set again and again for graphs of the same size
+     * allocates nothing.
+     *
+     * @param n the number of vertices, numbered from 0
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param tails the tail of every arc
+     * @param heads the head of every arc
+     * @param capacities the capacity of every arc
+     * @param arcCount the number of arcs, the first ones of the arrays
+     * @param infinity the bound on the capacities
+     */
+    public void set(int n, int s, int t, int[] tails, int[] heads,
+        double[] capacities, int arcCount, double infinity) {
+        this.n = n;
+        source = s;
+        sink = t;
+
+        if (vertex.length < n) {
+            vertex = new Vertex[n];
+        }
+
+        build(tails, heads, capacities, null, arcCount, infinity);
+    }
+
+    static double bound(double cap, double infinity) {
+        if (!(cap > 0)) {
+            return 0.0;
+        }
+
+        return Math.min(cap, infinity);
+    }
+
+    // lowers the residual capacities bounded by infinity to more than the
+    // sum of the other ones, so that no min cut with a finite value uses
+    // them and the excesses or flows summed on them cannot overflow or
+    // absorb a finite amount
+    void lowerInfinite(double infinity) {
+        double large = 1.0;
+
+        for (int a = 0; a < m; a++) {
+            if (residual[a] < infinity) {
+                large = large + residual[a];
+            }
+        }
+
+        for (int a = 0; a < m; a++) {
+            if (residual[a] >= infinity) {
+                residual[a] = large;
+            }
+        }
+    }
+
+    // counting sort of the arcs on their tail, each arc is followed
+    // in the adjacency of its head by its backward arc ; the arrays are
+    // allocated only when they are too small
+    private void build(int[] tails, int[] heads, double[] caps, Arc[] arcs,
+        int arcCount, double infinity) {
+        m = 2 * arcCount;
+
+        if ((first == null) || (first.length < (n + 1))) {
+            first = new int[n + 1];
+            next = new int[n + 1];
+        } else {
+            Arrays.fill(first, 0, n + 1, 0);
+        }
+
+        if ((head == null) || (head.length < m)) {
+            head = new int[m];
+            mate = new int[m];
+            capacity = new double[m];
+            residual = new double[m];
+            forward = new boolean[m];
+            arc = new Arc[m];
+        } else {
+            Arrays.fill(forward, 0, m, false);
+            Arrays.fill(arc, 0, m, null);
+        }
+
+        for (int k = 0; k < arcCount; k++) {
+            first[tails[k] + 1]++;
+            first[heads[k] + 1]++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            first[v + 1] += first[v];
+        }
+
+        System.arraycopy(first, 0, next, 0, n + 1);
+
+        for (int k = 0; k < arcCount; k++) {
+            int out = next[tails[k]]++;
+            int back = next[heads[k]]++;
+            head[out] = heads[k];
+            head[back] = tails[k];
+            mate[out] = back;
+            mate[back] = out;
+            capacity[out] = bound(caps[k], infinity);
+            capacity[back] = 0.0;
+            forward[out] = true;
+
+            if (arcs != null) {
+                arc[out] = arcs[k];
+            }
+        }
+
+        System.arraycopy(capacity, 0, residual, 0, m);
+    }
+
+    /**
+     * Sets the flow back to 0.
+     */
+    public void reset() {
+        System.arraycopy(capacity, 0, residual, 0, m);
+    }
+
+    /**
+     * Returns the number of vertices.
+     *
+     * @return an int
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the number of a vertex in the network.
+     *
+     * @param v the vertex
+     * @return an int, -1 if v is not in the network
+     */
+    public int indexOf(Vertex v) {
+        Integer i = index.get(v);
+
+        return (i == null) ? -1 : i.intValue();
+    }
+
+    /**
+     * Returns the tail of a residual arc.
+     *
+     * @param a the residual arc
+     * @return an int
+     */
+    public int tail(int a) {
+        return head[mate[a]];
+    }
+
+    /**
+     * Returns the value of the flow leaving s.
+     *
+     * @return a double
+     */
+    public double flowValue() {
+        double value = 0.0;
+
+        for (int a = first[source]; a < first[source + 1]; a++) {
+            if (forward[a]) {
+                value = value + residual[mate[a]];
+            } else {
+                value = value - residual[a];
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Marks the vertices reachable from s in the residual network. When the
+     * flow is maximal, they give the smallest source side of a min cut, the
+     * one which MinCut labels.
+     *
+     * @param side the array to fill, of length at least size()
+     * @param queue a work array of length at least size()
+     */
+    public void sourceSide(boolean[] side, int[] queue) {
+        int qhead = 0;
+        int qtail = 0;
+
+        Arrays.fill(side, false);
+        side[source] = true;
+        queue[qtail++] = source;
+
+        while (qhead < qtail) {
+            int v = queue[qhead++];
+
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+
+                if ((residual[a] > 0) && !side[w]) {
+                    side[w] = true;
+                    queue[qtail++] = w;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the vertices reachable from s in the residual network.
+     *
+     * @return an array of booleans indexed by the vertices
+     */
+    public boolean[] sourceSide() {
+        boolean[] side = new boolean[n];
+        sourceSide(side, new int[n]);
+
+        return side;
+    }
+
+    /**
+     * Returns the vertices of one side.
+     *
+     * @param side the side
+     * @return a vertex set.
+     */
+    public VertexSet vertexSet(boolean[] side) {
+        VertexSet result = new VertexSet();
+
+        for (int v = 0; v < n; v++) {
+            if (side[v] && (vertex[v] != null)) {
+                result.add(vertex[v]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the arcs of the digraph going out of one side.
+     *
+     * @param side the side
+     * @return an arc set.
+     */
+    public ArcSet arcSet(boolean[] side) {
+        ArcSet result = new ArcSet();
+
+        for (int v = 0; v < n; v++) {
+            if (!side[v]) {
+                continue;
+            }
+
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                if ((arc[a] != null) && !side[head[a]]) {
+                    result.add(arc[a]);
+                }
+            }
+        }
+
+        return result;
+    }
+}
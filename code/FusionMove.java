@@ -0,0 +1,321 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.AbstractMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.CSRMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.EdmondsKarpMinCut;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.FlowNetwork;
+import in.ac.iitb.cfilt.context.mascoptLib.algos.digraph.MaxFlowSolver;
+
+import java.util.Vector;
+
+/**
+ * <p>Class	: FusionMove
+ * <p>Purpose	: This class fuses two assignments of the same MRF graph : every
+ * node takes its label in the first or in the second one, the choice of
+ * least energy (of nodes and edges) being found by one graph cut.
+ * <p>The binary problem of the choice is not always submodular (the labels
+ * of the two assignments are arbitrary), so it is solved by QPBO : the graph
+ * has two vertices for each node whose labels differ, p for the choice and
+ * p' for its opposite, and the energy of every edge is split between them,
+ * an edge which is not submodular linking p to q' and q to p'. After the max
+ * flow, a node takes the second label if p is on the side of T and p' on the
+ * side of S, the first label if the reverse, and is left unlabelled
+ * otherwise. The unlabelled nodes take the first label, which never raises
+ * the energy of the first assignment.
+ * <p>The infinite energies give arcs of capacity INFINITY (of the engine), a
+ * difference of two infinite energies being left out.
+ * <p>The assignment returned is the one of least score (see
+ * {@link AlphaExpander#expand(MRFGraph, Vector, int)}) of the fused one and
+ * the two given ones.
+ */
+public class FusionMove {
+
+	private static final int SOURCE = 0;
+	private static final int SINK = 1;
+
+	/**
+	 * This field stores the max-flow algorithm run on the graph
+	 */
+	private AbstractMinCut m_engine;
+	/**
+	 * This field stores the number of nodes left unlabelled by the last fusion
+	 */
+	private int m_unlabelledCount = 0;
+
+	/**
+	 * <p>Method 	: FusionMove
+	 * <p>Purpose	: Creates a fusion move using the max-flow solver named by
+	 * the system property {@link AlphaExpander#MAX_FLOW_PROPERTY}, as an
+	 * {@link AlphaExpander} does
+	 */
+	public FusionMove() {
+		this(getEngine(AlphaExpander.findMaxFlowSolver(System.getProperty(AlphaExpander.MAX_FLOW_PROPERTY, EdmondsKarpMinCut.NAME))));
+	}
+
+	/**
+	 * <p>Method 	: FusionMove
+	 * <p>Purpose	: Creates a fusion move using a copy of the max-flow solver
+	 * of the given expander
+	 * <p>@param expander
+	 */
+	public FusionMove(AlphaExpander expander) {
+		this(getEngine(expander.getMaxFlowSolver()));
+	}
+
+	/**
+	 * <p>Method 	: FusionMove
+	 * <p>Purpose	: Creates a fusion move using the given max-flow algorithm
+	 * <p>@param engine
+	 */
+	public FusionMove(AbstractMinCut engine) {
+		m_engine = engine;
+	}
+
+	/**
+	 * <p>Method 	: getEngine
+	 * <p>Purpose	: Returns a copy of the given solver if it works on a
+	 * {@link FlowNetwork}, else a {@link CSRMinCut}, which runs the
+	 * Edmonds-Karp algorithm of the default solver on a FlowNetwork
+	 * <p>@param solver
+	 * <p>@return AbstractMinCut
+	 */
+	private static AbstractMinCut getEngine(MaxFlowSolver solver) {
+		if (solver instanceof AbstractMinCut) {
+			return (AbstractMinCut) solver.copy();
+		}
+		return new CSRMinCut();
+	}
+
+	/**
+	 * <p>Method 	: getUnlabelledCount
+	 * <p>Purpose	: Returns the number of nodes left unlabelled by QPBO in
+	 * the last fusion, 0 if its binary problem was submodular
+	 * <p>@return int
+	 */
+	public int getUnlabelledCount() {
+		return m_unlabelledCount;
+	}
+
+	/**
+	 * <p>Method 	: fuse
+	 * <p>Purpose	: Fuses the given assignments one after the other, the
+	 * first with the second, the result with the third, and so on
+	 * <p>@param mrfGraph
+	 * <p>@param assignments
+	 * <p>@param maxAlpha
+	 * <p>@return Vector<Integer>
+	 */
+	public Vector<Integer> fuse(MRFGraph mrfGraph, Vector<Vector<Integer>> assignments, int maxAlpha) {
+		Vector<Integer> assignment = assignments.firstElement();
+		for (int i = 1; i < assignments.size(); i++) {
+			assignment = fuse(mrfGraph, assignment, assignments.elementAt(i), maxAlpha);
+		}
+		return assignment;
+	}
+
+	/**
+	 * <p>Method 	: fuse
+	 * <p>Purpose	: Fuses two assignments and returns the one of least score
+	 * of the fused one, first and second, in this order in case of equality
+	 * <p>@param mrfGraph
+	 * <p>@param first
+	 * <p>@param second
+	 * <p>@param maxAlpha
+	 * <p>@return Vector<Integer>
+	 */
+	public Vector<Integer> fuse(MRFGraph mrfGraph, Vector<Integer> first, Vector<Integer> second, int maxAlpha) {
+		Vector<Integer> fused = getFusedAssignment(mrfGraph, first, second, maxAlpha);
+		Vector<Integer> best = fused;
+		CompiledMRF mrf = new CompiledMRF(mrfGraph);
+		double bestScore = mrf.getScore(AlphaExpander.getLabels(fused));
+		double score = mrf.getScore(AlphaExpander.getLabels(first));
+
+		if (score < bestScore) {
+			best = first;
+			bestScore = score;
+		}
+		score = mrf.getScore(AlphaExpander.getLabels(second));
+		if (score < bestScore) {
+			best = second;
+		}
+		return best;
+	}
+
+	/**
+	 * <p>Method 	: getFusedAssignment
+	 * <p>Purpose	: Returns the choice of the labels of first and second
+	 * found by QPBO, the unlabelled nodes taking the label of first
+	 * <p>@param mrfGraph
+	 * <p>@param first
+	 * <p>@param second
+	 * <p>@param maxAlpha
+	 * <p>@return Vector<Integer>
+	 */
+	Vector<Integer> getFusedAssignment(MRFGraph mrfGraph, Vector<Integer> first, Vector<Integer> second, int maxAlpha) {
+		Vector<Integer> fused = new Vector<Integer>(first);
+		int size = mrfGraph.getNodes().size();
+		int[] localIndex = new int[size];
+		int[] nodeIndices = new int[size];
+		double[] unary = null;
+		int count = 0;
+		int arcCount = 0;
+		int p = 0;
+		int q = 0;
+		int firstNodeIndex = 0;
+		int secondNodeIndex = 0;
+		double e00 = 0.0;
+		double e01 = 0.0;
+		double e10 = 0.0;
+		double e11 = 0.0;
+		double weight = 0.0;
+
+		m_unlabelledCount = 0;
+		//Only the nodes whose labels differ have a choice
+		for (int i = 0; i < size; i++) {
+			if (first.elementAt(i).equals(second.elementAt(i))) {
+				localIndex[i] = -1;
+			} else {
+				localIndex[i] = count;
+				nodeIndices[count++] = i;
+			}
+		}
+		if (count == 0) {
+			return fused;
+		}
+		//unary[p] is the energy of the second label less the one of the first
+		unary = new double[count];
+		for (MRFNode node : mrfGraph.getNodes()) {
+			p = localIndex[node.getNodeIndex()];
+			if (p >= 0) {
+				unary[p] = getDifference(node.getEnergy(second.elementAt(node.getNodeIndex())), node.getEnergy(first.elementAt(node.getNodeIndex())));
+			}
+		}
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			if (localIndex[edge.getFirstNode().getNodeIndex()] >= 0 && localIndex[edge.getSecondNode().getNodeIndex()] >= 0) {
+				arcCount += 2;
+			}
+		}
+		int[] tails = new int[2 * count + arcCount];
+		int[] heads = new int[2 * count + arcCount];
+		double[] capacities = new double[2 * count + arcCount];
+		int k = 2 * count;
+
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			firstNodeIndex = edge.getFirstNode().getNodeIndex();
+			secondNodeIndex = edge.getSecondNode().getNodeIndex();
+			p = localIndex[firstNodeIndex];
+			q = localIndex[secondNodeIndex];
+			if (p < 0 && q < 0) {
+				continue;
+			}
+			e00 = edge.getEnergy(first.elementAt(firstNodeIndex), first.elementAt(secondNodeIndex));
+			e01 = edge.getEnergy(first.elementAt(firstNodeIndex), second.elementAt(secondNodeIndex));
+			e10 = edge.getEnergy(second.elementAt(firstNodeIndex), first.elementAt(secondNodeIndex));
+			e11 = edge.getEnergy(second.elementAt(firstNodeIndex), second.elementAt(secondNodeIndex));
+			if (q < 0) {
+				//The second node keeps its label
+				unary[p] = add(unary[p], getDifference(e10, e00));
+			} else if (p < 0) {
+				unary[q] = add(unary[q], getDifference(e01, e00));
+			} else {
+				//E(x, y) = e00 + (e10 - e00) x + (e11 - e10) y + weight (1 - x) y
+				unary[p] = add(unary[p], getDifference(e10, e00));
+				unary[q] = add(unary[q], getDifference(e11, e10));
+				weight = getDifference(e01 + e10, e00 + e11);
+				if (weight >= 0) {
+					//Cut when x = 0 and y = 1 : arcs p -> q and q' -> p'
+					setArc(tails, heads, capacities, k++, getVertex(p, false, count), getVertex(q, false, count), half(weight));
+					setArc(tails, heads, capacities, k++, getVertex(q, true, count), getVertex(p, true, count), half(weight));
+				} else {
+					//weight (1 - x) y = weight y - weight x y, cut when x = 1 and y = 1 : arcs p' -> q and q' -> p
+					unary[q] = add(unary[q], weight);
+					setArc(tails, heads, capacities, k++, getVertex(p, true, count), getVertex(q, false, count), half(-weight));
+					setArc(tails, heads, capacities, k++, getVertex(q, true, count), getVertex(p, false, count), half(-weight));
+				}
+			}
+		}
+		for (p = 0; p < count; p++) {
+			if (unary[p] > 0) {
+				//Cut when x = 1 : arcs S -> p and p' -> T
+				setArc(tails, heads, capacities, 2 * p, SOURCE, getVertex(p, false, count), half(unary[p]));
+				setArc(tails, heads, capacities, 2 * p + 1, getVertex(p, true, count), SINK, half(unary[p]));
+			} else {
+				//Cut when x = 0 : arcs p -> T and S -> p'
+				setArc(tails, heads, capacities, 2 * p, getVertex(p, false, count), SINK, half(-unary[p]));
+				setArc(tails, heads, capacities, 2 * p + 1, SOURCE, getVertex(p, true, count), half(-unary[p]));
+			}
+		}
+		boolean[] side = m_engine.sourceSide(new FlowNetwork(2 * count + 2, SOURCE, SINK, tails, heads, capacities, m_engine.INFINITY));
+		for (p = 0; p < count; p++) {
+			if (!side[getVertex(p, false, count)] && side[getVertex(p, true, count)]) {
+				fused.setElementAt(second.elementAt(nodeIndices[p]), nodeIndices[p]);
+			} else if (side[getVertex(p, false, count)] == side[getVertex(p, true, count)]) {
+				m_unlabelledCount++;
+			}
+		}
+		return fused;
+	}
+
+	/**
+	 * <p>Method 	: getVertex
+	 * <p>Purpose	: Returns the vertex of the network of a node or of its
+	 * opposite
+	 * <p>@param p the node, numbered among the nodes which have a choice
+	 * <p>@param opposite
+	 * <p>@param count the number of nodes which have a choice
+	 * <p>@return int
+	 */
+	private static int getVertex(int p, boolean opposite, int count) {
+		return opposite ? 2 + count + p : 2 + p;
+	}
+
+	private static void setArc(int[] tails, int[] heads, double[] capacities, int k, int tail, int head, double capacity) {
+		tails[k] = tail;
+		heads[k] = head;
+		capacities[k] = capacity;
+	}
+
+	/**
+	 * <p>Method 	: getDifference
+	 * <p>Purpose	: Returns the difference of two energies bounded by
+	 * INFINITY, 0 if both are infinite (the choice does not change the
+	 * energy) or one of them is not a number
+	 * <p>@param energy
+	 * <p>@param other
+	 * <p>@return double
+	 */
+	private double getDifference(double energy, double other) {
+		if (energy == other || Double.isNaN(energy) || Double.isNaN(other)) {
+			return 0.0;
+		}
+		return bound(energy - other);
+	}
+
+	/**
+	 * <p>Method 	: add
+	 * <p>Purpose	: Adds a difference of energies to a sum, both bounded by
+	 * INFINITY, so that infinite differences of opposite signs do not give
+	 * NaN
+	 * <p>@param sum
+	 * <p>@param difference
+	 * <p>@return double
+	 */
+	private double add(double sum, double difference) {
+		return bound(sum + difference);
+	}
+
+	private double bound(double value) {
+		return Math.max(-m_engine.INFINITY, Math.min(value, m_engine.INFINITY));
+	}
+
+	/**
+	 * <p>Method 	: half
+	 * <p>Purpose	: Returns the capacity of one of the two arcs of a term
+	 * split between p and p', an infinite term giving two infinite arcs
+	 * <p>@param value
+	 * <p>@return double
+	 */
+	private double half(double value) {
+		return value >= m_engine.INFINITY ? m_engine.INFINITY : value / 2;
+	}
+}
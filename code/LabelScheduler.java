@@ -0,0 +1,280 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.Vector;
+
+/**
+ * <p>Class	: LabelScheduler
+ * <p>Purpose	: This class chooses the labels \alpha whose moves are tried
+ * by alpha expansion, so that a move which can not change the assignment is
+ * not solved again.
+ * <p>A label is dirty until its move is solved, then becomes dirty again
+ * only when a node changes its label next to a node which may take it (a
+ * node whose energy for the label is finite). The move of a label only
+ * depends on the energies of the nodes which may take it and of their
+ * edges, and a change of label only changes the energies of the node and
+ * of its edges, so a move which failed would fail again as long as its
+ * label is not dirty.
+ * <p>The dirty labels are given in rounds, like the sweeps of
+ * {@link AlphaExpander#expand(MRFGraph, Vector, int)}. Each round is
+ * ordered by the {@link Order} chosen, and a label made dirty during a round
+ * is given in the same round if its turn is yet to come. The schedule ends when
+ * no label is dirty, or when a round leaves the assignment as it was (moves
+ * of equal score undoing each other).
+ */
+public class LabelScheduler {
+
+	/**
+	 * <p>Enum	: Order
+	 * <p>Purpose	: The orders of the labels in a round
+	 */
+	public enum Order {
+		/**
+		 * The labels in increasing order, as the sweeps of expand
+		 */
+		FIXED,
+		/**
+		 * The labels given to the most nodes first
+		 */
+		FREQUENCY,
+		/**
+		 * The labels which lower the energies of the nodes the most first,
+		 * the gain of a label being the sum over the nodes of the decrease of
+		 * their energy if they took it
+		 */
+		GAIN,
+		/**
+		 * The labels in random order
+		 */
+		RANDOM
+	}
+
+	/**
+	 * This field stores the graph, with the neighbours of every node
+	 */
+	private CompiledMRF m_mrf;
+	/**
+	 * This field stores the number of labels
+	 */
+	private int m_maxAlpha;
+	/**
+	 * This field stores the order of the labels in a round
+	 */
+	private Order m_order;
+	/**
+	 * This field stores the random generator of the order RANDOM
+	 */
+	private Random m_random;
+	/**
+	 * This field stores whether each label is dirty
+	 */
+	private boolean[] m_dirty;
+	/**
+	 * This field stores the labels of the current round, in order
+	 */
+	private Vector<Integer> m_round = new Vector<Integer>();
+	/**
+	 * This field stores the position of the next label of the round
+	 */
+	private int m_position = 0;
+	/**
+	 * This field stores the assignment at the start of the current round
+	 */
+	private Vector<Integer> m_roundAssignment = null;
+	/**
+	 * This field stores the number of labels given
+	 */
+	private int m_moveCount = 0;
+	/**
+	 * This field stores the number of rounds started
+	 */
+	private int m_roundCount = 0;
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param mrfGraph
+	 * @param maxAlpha
+	 * @param order
+	 * @param random the generator of the order RANDOM, may be null otherwise
+	 */
+	public LabelScheduler(MRFGraph mrfGraph, int maxAlpha, Order order, Random random) {
+		this(new CompiledMRF(mrfGraph), maxAlpha, order, random);
+	}
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param mrf
+	 * @param maxAlpha
+	 * @param order
+	 * @param random the generator of the order RANDOM, may be null otherwise
+	 */
+	public LabelScheduler(CompiledMRF mrf, int maxAlpha, Order order, Random random) {
+		m_mrf = mrf;
+		m_maxAlpha = maxAlpha;
+		m_order = order;
+		m_random = random;
+		m_dirty = new boolean[maxAlpha];
+		for (int alpha = 0; alpha < maxAlpha; alpha++) {
+			m_dirty[alpha] = true;
+		}
+	}
+
+	/**
+	 * <p>Method 	: next
+	 * <p>Purpose	: Returns the next label whose move should be tried, which
+	 * is no longer dirty, or -1 when the schedule is over
+	 * <p>@param assignment the current assignment
+	 * <p>@return int
+	 */
+	public int next(Vector<Integer> assignment) {
+		int alpha = 0;
+		while (true) {
+			while (m_position < m_round.size()) {
+				alpha = m_round.elementAt(m_position++);
+				if (m_dirty[alpha]) {
+					m_dirty[alpha] = false;
+					m_moveCount++;
+					return alpha;
+				}
+			}
+			if (m_roundAssignment != null && m_roundAssignment.equals(assignment)) {
+				return -1;
+			}
+			if (!startRound(assignment)) {
+				return -1;
+			}
+		}
+	}
+
+	/**
+	 * <p>Method 	: changed
+	 * <p>Purpose	: Makes dirty the labels whose moves may be changed by
+	 * a change of the label of the given node
+	 * <p>@param nodeIndex void
+	 */
+	public void changed(int nodeIndex) {
+		for (int alpha = 0; alpha < m_maxAlpha; alpha++) {
+			if (m_dirty[alpha]) {
+				continue;
+			}
+			if (mayTake(nodeIndex, alpha)) {
+				m_dirty[alpha] = true;
+				continue;
+			}
+			for (int a = m_mrf.getIncidenceStart(nodeIndex); a < m_mrf.getIncidenceStart(nodeIndex + 1); a++) {
+				if (mayTake(m_mrf.getNeighbour(a), alpha)) {
+					m_dirty[alpha] = true;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>Method 	: getMoveCount
+	 * <p>Purpose	: Returns the number of labels given by next, that is the
+	 * number of moves solved
+	 * <p>@return int
+	 */
+	public int getMoveCount() {
+		return m_moveCount;
+	}
+
+	/**
+	 * <p>Method 	: getRoundCount
+	 * <p>Purpose	: Returns the number of rounds started
+	 * <p>@return int
+	 */
+	public int getRoundCount() {
+		return m_roundCount;
+	}
+
+	private boolean mayTake(int nodeIndex, int alpha) {
+		return m_mrf.getEnergy(nodeIndex, alpha) != Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * <p>Method 	: startRound
+	 * <p>Purpose	: Puts the labels in the round, in order, and returns
+	 * false if none is dirty. The labels which are not dirty are in the
+	 * round too, in case they become dirty before their turn.
+	 * <p>@param assignment
+	 * <p>@return boolean
+	 */
+	private boolean startRound(Vector<Integer> assignment) {
+		boolean dirty = false;
+		m_round.clear();
+		m_position = 0;
+		for (int alpha = 0; alpha < m_maxAlpha; alpha++) {
+			m_round.add(alpha);
+			dirty = dirty || m_dirty[alpha];
+		}
+		if (!dirty) {
+			return false;
+		}
+		if (m_roundAssignment == null) {
+			m_roundAssignment = new Vector<Integer>();
+		}
+		m_roundAssignment.clear();
+		m_roundAssignment.addAll(assignment);
+		m_roundCount++;
+		switch (m_order) {
+		case FREQUENCY:
+			sortByKey(getFrequencies(assignment));
+			break;
+		case GAIN:
+			sortByKey(getGains(assignment));
+			break;
+		case RANDOM:
+			Collections.shuffle(m_round, m_random);
+			break;
+		default:
+			break;
+		}
+		return true;
+	}
+
+	private double[] getFrequencies(Vector<Integer> assignment) {
+		double[] frequencies = new double[m_maxAlpha];
+		for (Integer label : assignment) {
+			frequencies[label]++;
+		}
+		return frequencies;
+	}
+
+	private double[] getGains(Vector<Integer> assignment) {
+		double[] gains = new double[m_maxAlpha];
+		double gain = 0.0;
+		for (int i = 0; i < m_mrf.size(); i++) {
+			for (int alpha : m_round) {
+				gain = m_mrf.getEnergy(i, assignment.elementAt(i)) - m_mrf.getEnergy(i, alpha);
+				//An infinite gain counts as 1, as an infinite energy in the score
+				if (gain == Double.POSITIVE_INFINITY) {
+					gains[alpha] += 1;
+				} else if (gain > 0) {
+					gains[alpha] += gain;
+				}
+			}
+		}
+		return gains;
+	}
+
+	/**
+	 * <p>Method 	: sortByKey
+	 * <p>Purpose	: Sorts the labels of the round by decreasing key, the
+	 * smallest label first in case of equality
+	 * <p>@param keys void
+	 */
+	private void sortByKey(final double[] keys) {
+		Collections.sort(m_round, new Comparator<Integer>() {
+			public int compare(Integer first, Integer second) {
+				int result = Double.compare(keys[second], keys[first]);
+				return (result != 0) ? result : first - second;
+			}
+		});
+	}
+}
@@ -0,0 +1,174 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import java.util.Vector;
+
+/**
+ * <p>Class	: MRFComponents
+ * <p>Purpose	: This class splits an MRF graph into its connected components,
+ * found by union-find on the edges. Every component is an MRF graph of its
+ * own whose nodes are numbered from 0, so that it can be expanded apart from
+ * the others. Its nodes and edges have copies of the potentials and
+ * energies of those of the given graph, which can change or be cleared
+ * while the components are used.
+ * <p>An assignment of the graph is split into assignments of the components,
+ * and merged back from them.
+ */
+public class MRFComponents {
+
+	/**
+	 * This field stores the components
+	 */
+	private Vector<MRFGraph> m_components = new Vector<MRFGraph>();
+	/**
+	 * This field stores, for every component, the node index in the given
+	 * graph of each of its nodes
+	 */
+	private Vector<int[]> m_nodeIndices = new Vector<int[]>();
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param mrfGraph
+	 */
+	public MRFComponents(MRFGraph mrfGraph) {
+		Vector<MRFNode> nodes = mrfGraph.getNodes();
+		int size = nodes.size();
+		int[] parent = new int[size];
+		int[] rank = new int[size];
+		int[] componentOfRoot = new int[size];
+		int[] componentSize = new int[size];
+		int[] localIndex = new int[size];
+		MRFNode[] localNodes = new MRFNode[size];
+		MRFNode node = null;
+		MRFEdge localEdge = null;
+		int first = 0;
+		int second = 0;
+		int component = 0;
+
+		for (int i = 0; i < size; i++) {
+			parent[i] = i;
+			componentOfRoot[i] = -1;
+		}
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			first = find(parent, edge.getFirstNode().getNodeIndex());
+			second = find(parent, edge.getSecondNode().getNodeIndex());
+			if (first == second) {
+				continue;
+			}
+			//Union by rank
+			if (rank[first] < rank[second]) {
+				parent[first] = second;
+			} else {
+				parent[second] = first;
+				if (rank[first] == rank[second]) {
+					rank[first]++;
+				}
+			}
+		}
+		//The components are numbered in the order of their first node
+		for (int i = 0; i < size; i++) {
+			first = find(parent, i);
+			if (componentOfRoot[first] < 0) {
+				componentOfRoot[first] = m_components.size();
+				m_components.add(new MRFGraph());
+			}
+			componentSize[componentOfRoot[first]]++;
+		}
+		for (int c = 0; c < m_components.size(); c++) {
+			m_nodeIndices.add(new int[componentSize[c]]);
+		}
+		for (int i = 0; i < size; i++) {
+			node = nodes.elementAt(i);
+			component = componentOfRoot[find(parent, i)];
+			localIndex[i] = m_components.elementAt(component).getNodes().size();
+			localNodes[i] = new MRFNode(localIndex[i], node.getPotentialArray().clone(), node.getCandidateSynsets());
+			localNodes[i].setEnergies(node.getEnergyArray().clone());
+			m_components.elementAt(component).addVertex(localNodes[i]);
+			m_nodeIndices.elementAt(component)[localIndex[i]] = node.getNodeIndex();
+		}
+		for (MRFEdge edge : mrfGraph.getEdges()) {
+			first = edge.getFirstNode().getNodeIndex();
+			second = edge.getSecondNode().getNodeIndex();
+			localEdge = new MRFEdge(localNodes[first], localNodes[second], edge.getPotentialArray().clone());
+			localEdge.setEnergies(edge.getEnergyArray().clone());
+			m_components.elementAt(componentOfRoot[find(parent, first)]).addEdge(localEdge);
+		}
+	}
+
+	/**
+	 * <p>Method 	: find
+	 * <p>Purpose	: Returns the root of the tree of a node, halving the path
+	 * <p>@param parent
+	 * <p>@param node
+	 * <p>@return int
+	 */
+	private static int find(int[] parent, int node) {
+		while (parent[node] != node) {
+			parent[node] = parent[parent[node]];
+			node = parent[node];
+		}
+		return node;
+	}
+
+	/**
+	 * <p>Method 	: size
+	 * <p>Purpose	: Returns the number of components
+	 * <p>@return int
+	 */
+	public int size() {
+		return m_components.size();
+	}
+
+	/**
+	 * <p>Method 	: getComponent
+	 * <p>Purpose	: Returns a component as an MRF graph
+	 * <p>@param component
+	 * <p>@return MRFGraph
+	 */
+	public MRFGraph getComponent(int component) {
+		return m_components.elementAt(component);
+	}
+
+	/**
+	 * <p>Method 	: getNodeIndices
+	 * <p>Purpose	: Returns the node indices in the given graph of the nodes
+	 * of a component
+	 * <p>@param component
+	 * <p>@return int[]
+	 */
+	public int[] getNodeIndices(int component) {
+		return m_nodeIndices.elementAt(component);
+	}
+
+	/**
+	 * <p>Method 	: split
+	 * <p>Purpose	: Returns the assignment of a component taken from an
+	 * assignment of the given graph
+	 * <p>@param assignment
+	 * <p>@param component
+	 * <p>@return Vector<Integer>
+	 */
+	public Vector<Integer> split(Vector<Integer> assignment, int component) {
+		int[] nodeIndices = m_nodeIndices.elementAt(component);
+		Vector<Integer> componentAssignment = new Vector<Integer>(nodeIndices.length);
+		for (int nodeIndex : nodeIndices) {
+			componentAssignment.add(assignment.elementAt(nodeIndex));
+		}
+		return componentAssignment;
+	}
+
+	/**
+	 * <p>Method 	: merge
+	 * <p>Purpose	: Sets the labels of the nodes of a component in an
+	 * assignment of the given graph
+	 * <p>@param assignment
+	 * <p>@param component
+	 * <p>@param componentAssignment void
+	 */
+	public void merge(Vector<Integer> assignment, int component, Vector<Integer> componentAssignment) {
+		int[] nodeIndices = m_nodeIndices.elementAt(component);
+		for (int i = 0; i < nodeIndices.length; i++) {
+			assignment.setElementAt(componentAssignment.elementAt(i), nodeIndices[i]);
+		}
+	}
+}
@@ -25,11 +25,11 @@ public class MRFEdge {
 	/**
 	 * This field stores the m_potentials of the edge
 	 */
-	private Vector<Double> m_potentials;
+	private double[] m_potentials;
 	/**
 	 * This field stores the m_energies ( -log (m_potentials))
 	 */
-	private Vector<Double> m_energies;
+	private double[] m_energies;
 	/**
 	 * This field stores the m_capacity of the edge
 	 */
@@ -43,6 +43,17 @@ public class MRFEdge {
 	 * @param m_potentials
 	 */
 	public MRFEdge(MRFNode firstNode, MRFNode secondNode, Vector<Double> potentials) {
+		this(firstNode, secondNode, toArray(potentials));
+	}
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param m_firstNode
+	 * @param m_secondNode
+	 * @param m_potentials
+	 */
+	public MRFEdge(MRFNode firstNode, MRFNode secondNode, double[] potentials) {
 		this.m_firstNode = firstNode;
 		this.m_secondNode = secondNode;
 		this.m_potentials = potentials;
@@ -55,20 +66,46 @@ public class MRFEdge {
 	 * <p>Purpose	: Calculates the energied based on m_potentials
 	 * energy = -log (potential)
 	 * <p>@param m_potentials
-	 * <p>@return Vector<Double>
+	 * <p>@return double[]
 	 */
-	private Vector<Double> calculateEnergies(Vector<Double> potentials) {
-		Vector<Double> energies = new Vector<Double>();
-		for (Double potential : potentials) {
-			if (potential == null) {
-				energies.add(-Math.log(0));
-			} else {
-				energies.add(-Math.log(potential));
-			}
+	private double[] calculateEnergies(double[] potentials) {
+		double[] energies = new double[potentials.length];
+		for (int i = 0; i < potentials.length; i++) {
+			energies[i] = -Math.log(potentials[i]);
 		}
 		return energies;
 	}
 
+	/**
+	 * <p>Method 	: toArray
+	 * <p>Purpose	: Returns the values of a list, a missing value being 0
+	 * <p>@param values
+	 * <p>@return double[]
+	 */
+	private static double[] toArray(Vector<Double> values) {
+		double[] array = new double[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			if (values.elementAt(i) != null) {
+				array[i] = values.elementAt(i);
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * <p>Method 	: toVector
+	 * <p>Purpose	: Returns a list of the values of an array
+	 * <p>@param values
+	 * <p>@return Vector<Double>
+	 */
+	private static Vector<Double> toVector(double[] values) {
+		Vector<Double> vector = new Vector<Double>(values.length);
+		for (double value : values) {
+			vector.add(value);
+		}
+		return vector;
+	}
+
 	/**
 	 * <p>Method 	: getFirstNode
 	 * <p>Purpose	: Returns the node on one end of the edge
@@ -89,19 +126,55 @@ public class MRFEdge {
 
 	/**
 	 * <p>Method 	: getEnergies
-	 * <p>Purpose	: Returns the m_energies of the edge
+	 * <p>Purpose	: Returns a copy of the m_energies of the edge, which does
+	 * not change with them (see getEnergyArray)
 	 * <p>@return Vector<Double>
 	 */
 	public Vector<Double> getEnergies() {
+		return toVector(this.m_energies);
+	}
+
+	/**
+	 * <p>Method 	: getEnergyArray
+	 * <p>Purpose	: Returns the m_energies of the edge, as the table of
+	 * getEnergy. A change of the array is a change of the m_energies.
+	 * <p>@return double[]
+	 */
+	public double[] getEnergyArray() {
 		return this.m_energies;
 	}
 
+	/**
+	 * <p>Method 	: getEnergy
+	 * <p>Purpose	: Returns the energy of a pair of labels of the nodes. The
+	 * m_energies are a table of one row for each label of the first node, of
+	 * one column for each label of the second node, row after row (see
+	 * {@link MRFNode#getLabelCount()}).
+	 * <p>@param firstLabel
+	 * <p>@param secondLabel
+	 * <p>@return double
+	 */
+	public double getEnergy(int firstLabel, int secondLabel) {
+		return this.m_energies[firstLabel * this.m_secondNode.getLabelCount() + secondLabel];
+	}
+
 	/**
 	 * <p>Method 	: setEnergies
 	 * <p>Purpose	: Sets the m_energies of the edge 
 	 * <p>@param m_energies void
 	 */
 	public void setEnergies(Vector<Double> energies) {
+		this.m_energies = toArray(energies);
+		normalizeEnergies();
+	}
+
+	/**
+	 * <p>Method 	: setEnergies
+	 * <p>Purpose	: Sets the m_energies of the edge, which shares the array
+	 * with the caller : edges given the same array have the same m_energies
+	 * <p>@param m_energies void
+	 */
+	public void setEnergies(double[] energies) {
 		this.m_energies = energies;
 		normalizeEnergies();
 	}
@@ -112,25 +185,32 @@ public class MRFEdge {
 	 * <p> void
 	 */
 	public void normalizeEnergies() {
-		Vector<Double> energies = new Vector<Double>();
-		Double minEnergy = Double.MAX_VALUE;
-		for (Double energy : this.m_energies) {
+		double minEnergy = Double.MAX_VALUE;
+		for (double energy : this.m_energies) {
 			if (energy < minEnergy)
 				minEnergy = energy;
 		}
-		for (Double energy : this.m_energies) {
-			energies.add(energy - minEnergy);
+		for (int i = 0; i < this.m_energies.length; i++) {
+			this.m_energies[i] -= minEnergy;
 		}
-		this.m_energies.clear();
-		this.m_energies.addAll(energies);
 	}
 
 	/**
 	 * <p>Method 	: getPotentials
-	 * <p>Purpose	: Returns the m_potentials of the edge
+	 * <p>Purpose	: Returns a copy of the m_potentials of the edge
 	 * <p>@return Vector<Double>
 	 */
 	public Vector<Double> getPotentials() {
+		return toVector(this.m_potentials);
+	}
+
+	/**
+	 * <p>Method 	: getPotentialArray
+	 * <p>Purpose	: Returns the m_potentials of the edge, as the table of
+	 * getEnergy
+	 * <p>@return double[]
+	 */
+	public double[] getPotentialArray() {
 		return this.m_potentials;
 	}
 
@@ -161,7 +241,7 @@ public class MRFEdge {
 		buffer.append(this.m_firstNode.getNodeIndex() + "-");
 		buffer.append(this.m_secondNode.getNodeIndex());
 		buffer.append("]: {");
-		for (Double energy : this.m_energies) {
+		for (double energy : this.m_energies) {
 			buffer.append(energy + " ");
 		}
 		buffer.append("}");
@@ -171,7 +251,7 @@ public class MRFEdge {
 	public void clear() {
 		this.m_firstNode.clear();
 		this.m_secondNode.clear();
-		this.m_potentials.clear();
-		this.m_energies.clear();
+		this.m_potentials = new double[0];
+		this.m_energies = new double[0];
 	}
 }
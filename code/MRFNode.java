@@ -18,11 +18,11 @@ public class MRFNode {
 	/**
 	 * This field stores the list of m_potentials for the node
 	 */
-	private Vector<Double> m_potentials = new Vector<Double>();
+	private double[] m_potentials = new double[0];
 	/**
 	 * This field stores the m_energies ( -log (m_potentials))
 	 */
-	private Vector<Double> m_energies = new Vector<Double>();
+	private double[] m_energies = new double[0];
 
 	/**
 	 * This field stores the m_capacity of the node
@@ -42,6 +42,17 @@ public class MRFNode {
 	 * @param m_candidateSynsets 
 	 */
 	public MRFNode(int nodeIndex, Vector<Double> potentials, Vector<CandidateSynset> candidateSynsets) {
+		this(nodeIndex, toArray(potentials), candidateSynsets);
+	}
+
+	/**
+	 * Constructor
+	 * <p>
+	 * @param m_nodeIndex
+	 * @param m_potentials
+	 * @param m_candidateSynsets 
+	 */
+	public MRFNode(int nodeIndex, double[] potentials, Vector<CandidateSynset> candidateSynsets) {
 		this.m_nodeIndex = nodeIndex;
 		this.m_potentials = potentials;
 		this.m_energies = calculateEnergies(potentials);
@@ -51,6 +62,36 @@ public class MRFNode {
 		normalizeEnergies();
 	}
 
+	/**
+	 * <p>Method 	: toArray
+	 * <p>Purpose	: Returns the values of a list, a missing value being 0
+	 * <p>@param values
+	 * <p>@return double[]
+	 */
+	private static double[] toArray(Vector<Double> values) {
+		double[] array = new double[values.size()];
+		for (int i = 0; i < array.length; i++) {
+			if (values.elementAt(i) != null) {
+				array[i] = values.elementAt(i);
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * <p>Method 	: toVector
+	 * <p>Purpose	: Returns a list of the values of an array
+	 * <p>@param values
+	 * <p>@return Vector<Double>
+	 */
+	private static Vector<Double> toVector(double[] values) {
+		Vector<Double> vector = new Vector<Double>(values.length);
+		for (double value : values) {
+			vector.add(value);
+		}
+		return vector;
+	}
+
 	/**
 	 * <p>Method 	: getNodeIndex
 	 * <p>Purpose	: Returns the index of the node 
@@ -65,45 +106,109 @@ public class MRFNode {
 	 * <p>Purpose	: Calculates the energied based on m_potentials
 	 * energy = -log (potential)
 	 * <p>@param m_potentials
-	 * <p>@return Vector<Double>
+	 * <p>@return double[]
 	 */
-	private Vector<Double> calculateEnergies(Vector<Double> potentials) {
-		Vector<Double> energies = new Vector<Double>();
-		for (Double potential : potentials) {
-			if (potential == null) {
-				energies.add(-Math.log(0));
-			} else {
-				energies.add(-Math.log(potential));
-			}
+	private double[] calculateEnergies(double[] potentials) {
+		double[] energies = new double[potentials.length];
+		for (int i = 0; i < potentials.length; i++) {
+			energies[i] = -Math.log(potentials[i]);
 		}
 		return energies;
 	}
 
 	/**
 	 * <p>Method 	: getEnergies
-	 * <p>Purpose	: Returns the m_energies of the node
+	 * <p>Purpose	: Returns a copy of the m_energies of the node, which does
+	 * not change with them (see getEnergyArray)
 	 * <p>@return Vector<Double>
 	 */
 	public Vector<Double> getEnergies() {
+		return toVector(this.m_energies);
+	}
+
+	/**
+	 * <p>Method 	: getEnergyArray
+	 * <p>Purpose	: Returns the m_energies of the node, by label. A change of
+	 * the array is a change of the m_energies.
+	 * <p>@return double[]
+	 */
+	public double[] getEnergyArray() {
 		return this.m_energies;
 	}
 
+	/**
+	 * <p>Method 	: getLabelCount
+	 * <p>Purpose	: Returns the number of labels of the node, which has one
+	 * energy for each : the labels are the candidate synsets of the node,
+	 * numbered from 0. The nodes of a graph may have different numbers of
+	 * labels, or the same number with infinite energies for the labels they
+	 * do not have.
+	 * <p>@return int
+	 */
+	public int getLabelCount() {
+		return this.m_energies.length;
+	}
+
+	/**
+	 * <p>Method 	: hasLabel
+	 * <p>Purpose	: Returns true if the label is one of the labels of the node
+	 * <p>@param label
+	 * <p>@return boolean
+	 */
+	public boolean hasLabel(int label) {
+		return label < this.m_energies.length;
+	}
+
+	/**
+	 * <p>Method 	: getEnergy
+	 * <p>Purpose	: Returns the energy of a label, infinite if the node does
+	 * not have the label
+	 * <p>@param label
+	 * <p>@return double
+	 */
+	public double getEnergy(int label) {
+		if (label >= this.m_energies.length) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return this.m_energies[label];
+	}
+
 	/**
 	 * <p>Method 	: setEnergies
 	 * <p>Purpose	: Sets the m_energies for a node
 	 * <p>@param m_energies void
 	 */
 	public void setEnergies(Vector<Double> energies) {
+		this.m_energies = toArray(energies);
+		normalizeEnergies();
+	}
+
+	/**
+	 * <p>Method 	: setEnergies
+	 * <p>Purpose	: Sets the m_energies for a node, which shares the array
+	 * with the caller : nodes given the same array have the same m_energies
+	 * <p>@param m_energies void
+	 */
+	public void setEnergies(double[] energies) {
 		this.m_energies = energies;
 		normalizeEnergies();
 	}
 
 	/**
 	 * <p>Method 	: getPotentials
-	 * <p>Purpose	: Returns the m_potentials of the node
+	 * <p>Purpose	: Returns a copy of the m_potentials of the node
 	 * <p>@return Vector<Double>
 	 */
 	public Vector<Double> getPotentials() {
+		return toVector(this.m_potentials);
+	}
+
+	/**
+	 * <p>Method 	: getPotentialArray
+	 * <p>Purpose	: Returns the m_potentials of the node, by label
+	 * <p>@return double[]
+	 */
+	public double[] getPotentialArray() {
 		return this.m_potentials;
 	}
 
@@ -122,17 +227,14 @@ public class MRFNode {
 	 * <p> void
 	 */
 	public void normalizeEnergies() {
-		Vector<Double> energies = new Vector<Double>();
 		double minEnergy = Double.MAX_VALUE;
-		for (Double energy : this.m_energies) {
+		for (double energy : this.m_energies) {
 			if (energy < minEnergy)
 				minEnergy = energy;
 		}
-		for (Double energy : this.m_energies) {
-			energies.add(energy - minEnergy);
+		for (int i = 0; i < this.m_energies.length; i++) {
+			this.m_energies[i] -= minEnergy;
 		}
-		this.m_energies.clear();
-		this.m_energies.addAll(energies);
 	}
 
 	/**
@@ -150,7 +252,7 @@ public class MRFNode {
 	public String toString() {
 		StringBuffer buffer = new StringBuffer();
 		buffer.append(this.m_nodeIndex + ":{");
-		for (Double energy : this.m_energies) {
+		for (double energy : this.m_energies) {
 			buffer.append(energy + " ");
 		}
 		buffer.append("}");
@@ -173,8 +275,8 @@ public class MRFNode {
 	}
 
 	public void clear() {
-		this.m_potentials.clear();
-		this.m_energies.clear();
+		this.m_potentials = new double[0];
+		this.m_energies = new double[0];
 		this.m_candidateSynsets.clear();
 	}
 }
@@ -0,0 +1,67 @@
+// ******************************************************* //
+// Interface of the max-flow algorithms
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+
+
+/**
+ * A max-flow algorithm giving the minimum st-cut of a simple directed graph.
+ *
+ * The implementations have a public constructor without parameters and are
+ * declared in META-INF/services, so that they can be found by their name
+ * with java.util.ServiceLoader. A solver may keep a state from one cut to
+ * the next (as {@link DynamicMinCut}), so a thread should use its own copy.
+ *
+ * Entries : a digraph, two vertices s and t and the name of the capacities.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ */
+public interface MaxFlowSolver {
+
+    /**
+     * Returns the name of the algorithm.
+     *
+     * @return a string
+     */
+    String getName();
+
+    /**
+     * Computes the min cut and returns its set of vertices, the vertices
+     * reachable from s in the residual network of a max flow.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param capacity the name of the capacities on the arcs
+     * @return a vertex set.
+     */
+    VertexSet vertexSetCutMin(DiGraph g, Vertex s, Vertex t, String capacity);
+
+    /**
+     * Computes the min cut as vertexSetCutMin(g, s, t, capacity), the
+     * capacities being bounded by the given infinity instead of the one
+     * of the solver, which is left unchanged.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     * @param capacity the name of the capacities on the arcs
+     * @param infinity the bound on the capacities
+     * @return a vertex set.
+     */
+    VertexSet vertexSetCutMin(DiGraph g, Vertex s, Vertex t, String capacity,
+        double infinity);
+
+    /**
+     * Returns a new solver of the same algorithm and with the same
+     * parameters, which shares no state with this one.
+     *
+     * @return a solver
+     */
+    MaxFlowSolver copy();
+}
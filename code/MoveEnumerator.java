@@ -0,0 +1,172 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import java.util.BitSet;
+import java.util.Vector;
+
+/**
+ * <p>Class	: MoveEnumerator
+ * <p>Purpose	: This class solves the binary move of alpha expansion on a
+ * small graph by trying every subset of nodes taking alpha, instead of
+ * building the S-T graph and running a max-flow algorithm.
+ * <p>The cost of a subset is the value of the cut of the S-T graph built by
+ * {@link AlphaExpander} (edge S_n for a node taking alpha, edge n_T for a
+ * node keeping its label, edge i_j when i and j are on different sides),
+ * with the same capacities. The subsets are visited in Gray code order,
+ * so that each one differs from the last by one node and its cost is
+ * updated from the edges of this node only. Among the subsets of least
+ * cost, the largest one is chosen, as the max-flow algorithms do.
+ */
+public class MoveEnumerator {
+
+	/**
+	 * The largest number of nodes of a graph given to {@link #solve(MRFGraph)}
+	 */
+	public static final int MAX_SIZE = 24;
+
+	/**
+	 * This field stores the relative difference under which two costs
+	 * are considered equal
+	 */
+	private static final double TOLERANCE = 1e-12;
+
+	/**
+	 * <p>Method 	: solve
+	 * <p>Purpose	: Finds the nodes of a binary MRF graph (as built by
+	 * AlphaExpander.getAlphaGraph) which keep their label, in a time
+	 * proportional to 2^n, n being at most {@link #MAX_SIZE}
+	 * <p>@param binaryMRFGraph
+	 * <p>@return BitSet, the bit of a node index is set if the node keeps its
+	 * label, as in AlphaExpander.getSTMinCut
+	 */
+	public static BitSet solve(MRFGraph binaryMRFGraph) {
+		Vector<MRFNode> nodes = binaryMRFGraph.getNodes();
+		int size = nodes.size();
+		double[] keepEnergy = new double[size];
+		double[] alphaEnergy = new double[size];
+		double[] sourceCapacity = new double[size];
+		double[] sinkCapacity = new double[size];
+		double[][] pairCapacity = new double[size][size];
+		double[] energies = null;
+		int first = 0;
+		int second = 0;
+		double capacity = 0.0;
+
+		for (int i = 0; i < size; i++) {
+			keepEnergy[i] = nodes.elementAt(i).getEnergy(0);
+			alphaEnergy[i] = nodes.elementAt(i).getEnergy(1);
+		}
+		//Same capacities as AlphaExpander.createSTGraph
+		for (MRFEdge edge : binaryMRFGraph.getEdges()) {
+			first = nodes.indexOf(edge.getFirstNode());
+			second = nodes.indexOf(edge.getSecondNode());
+			energies = edge.getEnergyArray();
+			alphaEnergy[first] = alphaEnergy[first] + energies[2] - energies[0];
+			alphaEnergy[second] = alphaEnergy[second] + energies[3] - energies[2];
+			capacity = bound(energies[1] + energies[2] - energies[0] - energies[3]);
+			pairCapacity[first][second] += capacity;
+			pairCapacity[second][first] += capacity;
+		}
+		for (int i = 0; i < size; i++) {
+			if (alphaEnergy[i] > keepEnergy[i]) {
+				sourceCapacity[i] = bound(alphaEnergy[i] - keepEnergy[i]);
+			} else {
+				sinkCapacity[i] = bound(keepEnergy[i] - alphaEnergy[i]);
+			}
+		}
+		int bestMask = enumerate(size, sourceCapacity, sinkCapacity, pairCapacity);
+		BitSet sourceSide = new BitSet();
+		for (int i = 0; i < size; i++) {
+			if ((bestMask & (1 << i)) == 0) {
+				sourceSide.set(nodes.elementAt(i).getNodeIndex());
+			}
+		}
+		return sourceSide;
+	}
+
+	/**
+	 * <p>Method 	: enumerate
+	 * <p>Purpose	: Returns the subset (bit i for node i taking alpha) of
+	 * least cost, the largest one in case of equality. The infinite
+	 * capacities are counted apart so that no cost becomes undefined.
+	 * Only the first size nodes of the arrays are read, so that the same
+	 * arrays may be used for every move.
+	 * <p>@param size the number of nodes, at most {@link #MAX_SIZE}
+	 * <p>@param sourceCapacity
+	 * <p>@param sinkCapacity
+	 * <p>@param pairCapacity
+	 * <p>@return int
+	 */
+	static int enumerate(int size, double[] sourceCapacity, double[] sinkCapacity, double[][] pairCapacity) {
+		int mask = 0;
+		int bestMask = 0;
+		int infinite = 0;
+		int bestInfinite = 0;
+		double cost = 0.0;
+		double bestCost = 0.0;
+		double total = 0.0;
+		int node = 0;
+		int sign = 0;
+
+		for (int i = 0; i < size; i++) {
+			infinite += isInfinite(sinkCapacity[i]);
+			cost += finite(sinkCapacity[i]);
+			total += finite(sourceCapacity[i]) + finite(sinkCapacity[i]);
+			for (int j = 0; j < size; j++) {
+				total += finite(pairCapacity[i][j]);
+			}
+		}
+		bestInfinite = infinite;
+		bestCost = cost;
+		for (int step = 1; step < (1 << size); step++) {
+			node = Integer.numberOfTrailingZeros(step);
+			mask ^= 1 << node;
+			sign = ((mask & (1 << node)) != 0) ? 1 : -1;
+			infinite += sign * (isInfinite(sourceCapacity[node]) - isInfinite(sinkCapacity[node]));
+			cost += sign * (finite(sourceCapacity[node]) - finite(sinkCapacity[node]));
+			for (int j = 0; j < size; j++) {
+				if ((j == node) || (pairCapacity[node][j] == 0.0)) {
+					continue;
+				}
+				//The edge is cut when its ends are on different sides
+				if (((mask >> j) & 1) == ((mask >> node) & 1)) {
+					infinite -= isInfinite(pairCapacity[node][j]);
+					cost -= finite(pairCapacity[node][j]);
+				} else {
+					infinite += isInfinite(pairCapacity[node][j]);
+					cost += finite(pairCapacity[node][j]);
+				}
+			}
+			if ((infinite < bestInfinite) || ((infinite == bestInfinite) && (cost < bestCost - TOLERANCE * total))) {
+				bestMask = mask;
+				bestInfinite = infinite;
+				bestCost = cost;
+			} else if ((infinite == bestInfinite) && (cost <= bestCost + TOLERANCE * total) && (Integer.bitCount(mask) > Integer.bitCount(bestMask))) {
+				bestMask = mask;
+				bestCost = Math.min(cost, bestCost);
+			}
+		}
+		return bestMask;
+	}
+
+	/**
+	 * <p>Method 	: bound
+	 * <p>Purpose	: Bounds a capacity as the max-flow algorithms do, an
+	 * undefined or negative capacity being 0
+	 * <p>@param capacity
+	 * <p>@return double
+	 */
+	static double bound(double capacity) {
+		if (!(capacity > 0)) {
+			return 0.0;
+		}
+		return capacity;
+	}
+
+	private static int isInfinite(double capacity) {
+		return (capacity == Double.POSITIVE_INFINITY) ? 1 : 0;
+	}
+
+	private static double finite(double capacity) {
+		return (capacity == Double.POSITIVE_INFINITY) ? 0.0 : capacity;
+	}
+}
@@ -0,0 +1,285 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Class	: MultiStartExpander
+ * <p>Purpose	: This class runs several expansions of the same MRF graph
+ * from different start assignments, and keeps the one of least score. Alpha
+ * expansion only reaches a local minimum, which depends on where it starts.
+ * <p>The runs are done by the pool of threads of the given expander (its
+ * executor, or the pool of getThreads() threads it keeps until
+ * {@link AlphaExpander#close()}), each run taking one of its copies, so the
+ * runs share no state. The start assignments may
+ * be given, or made by {@link #getStartAssignment(MRFGraph, int, Start, Random)}.
+ */
+public class MultiStartExpander {
+
+	/**
+	 * <p>Enum	: Start
+	 * <p>Purpose	: The ways of making a start assignment
+	 */
+	public enum Start {
+		/**
+		 * Every node takes its first candidate synset, its most frequent
+		 * sense
+		 */
+		MOST_FREQUENT_SENSE,
+		/**
+		 * Every node takes the label of least energy, the smallest one in case
+		 * of equality
+		 */
+		MIN_ENERGY,
+		/**
+		 * Every node takes a random label among the ones of finite energy
+		 */
+		RANDOM
+	}
+
+	/**
+	 * This field stores the expander copied by every run
+	 */
+	private AlphaExpander m_expander;
+	/**
+	 * This field stores the seed of the random start assignments
+	 */
+	private long m_seed = 0;
+	/**
+	 * This field stores the maximum number of sweeps of a run
+	 */
+	private int m_maxSweeps = Integer.MAX_VALUE;
+
+	/**
+	 * <p>Method 	: MultiStartExpander
+	 * <p>Purpose	: Creates a multi-start expander whose runs copy a new
+	 * {@link AlphaExpander}
+	 */
+	public MultiStartExpander() {
+		this(new AlphaExpander());
+	}
+
+	/**
+	 * <p>Method 	: MultiStartExpander
+	 * <p>Purpose	: Creates a multi-start expander whose runs copy the given
+	 * expander, with its settings
+	 * <p>@param expander
+	 */
+	public MultiStartExpander(AlphaExpander expander) {
+		m_expander = expander;
+	}
+
+	/**
+	 * <p>Method 	: getSeed
+	 * <p>Purpose	: Returns the seed of the random start assignments
+	 * <p>@return long
+	 */
+	public long getSeed() {
+		return m_seed;
+	}
+
+	/**
+	 * <p>Method 	: setSeed
+	 * <p>Purpose	: Sets the seed of the random start assignments, the i-th
+	 * one being made from seed + i
+	 * <p>@param seed void
+	 */
+	public void setSeed(long seed) {
+		m_seed = seed;
+	}
+
+	/**
+	 * <p>Method 	: getMaxSweeps
+	 * <p>Purpose	: Returns the maximum number of sweeps of a run
+	 * <p>@return int
+	 */
+	public int getMaxSweeps() {
+		return m_maxSweeps;
+	}
+
+	/**
+	 * <p>Method 	: setMaxSweeps
+	 * <p>Purpose	: Sets the maximum number of sweeps of a run, no maximum
+	 * (Integer.MAX_VALUE) by default
+	 * <p>@param maxSweeps void
+	 */
+	public void setMaxSweeps(int maxSweeps) {
+		m_maxSweeps = maxSweeps;
+	}
+
+	/**
+	 * <p>Method 	: getStartAssignment
+	 * <p>Purpose	: Makes a start assignment of the given graph
+	 * <p>@param mrfGraph
+	 * <p>@param maxAlpha
+	 * <p>@param start
+	 * <p>@param random the generator of the start RANDOM, may be null otherwise
+	 * <p>@return Vector<Integer>
+	 */
+	public static Vector<Integer> getStartAssignment(MRFGraph mrfGraph, int maxAlpha, Start start, Random random) {
+		Vector<Integer> assignment = new Vector<Integer>(mrfGraph.getNodes().size());
+		int label = 0;
+		int finiteLabels = 0;
+
+		assignment.setSize(mrfGraph.getNodes().size());
+		for (MRFNode node : mrfGraph.getNodes()) {
+			label = 0;
+			switch (start) {
+			case MIN_ENERGY:
+				for (int alpha = 1; alpha < maxAlpha; alpha++) {
+					if (node.getEnergy(alpha) < node.getEnergy(label)) {
+						label = alpha;
+					}
+				}
+				break;
+			case RANDOM:
+				finiteLabels = 0;
+				for (int alpha = 0; alpha < maxAlpha; alpha++) {
+					//Reservoir sampling of the labels of finite energy
+					if (node.getEnergy(alpha) != Double.POSITIVE_INFINITY && random.nextInt(++finiteLabels) == 0) {
+						label = alpha;
+					}
+				}
+				break;
+			default:
+				break;
+			}
+			assignment.setElementAt(label, node.getNodeIndex());
+		}
+		return assignment;
+	}
+
+	/**
+	 * <p>Method 	: getStartAssignments
+	 * <p>Purpose	: Makes the given number of start assignments : the most
+	 * frequent senses, the labels of least energy, then random ones
+	 * <p>@param mrfGraph
+	 * <p>@param maxAlpha
+	 * <p>@param runs
+	 * <p>@return Vector<Vector<Integer>>
+	 */
+	public Vector<Vector<Integer>> getStartAssignments(MRFGraph mrfGraph, int maxAlpha, int runs) {
+		Vector<Vector<Integer>> startAssignments = new Vector<Vector<Integer>>();
+		for (int i = 0; i < runs; i++) {
+			if (i == 0) {
+				startAssignments.add(getStartAssignment(mrfGraph, maxAlpha, Start.MOST_FREQUENT_SENSE, null));
+			} else if (i == 1) {
+				startAssignments.add(getStartAssignment(mrfGraph, maxAlpha, Start.MIN_ENERGY, null));
+			} else {
+				startAssignments.add(getStartAssignment(mrfGraph, maxAlpha, Start.RANDOM, new Random(m_seed + i)));
+			}
+		}
+		return startAssignments;
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Expands the given graph from the given number of start
+	 * assignments made by getStartAssignments
+	 * <p>@param mrfGraph
+	 * <p>@param maxAlpha
+	 * <p>@param runs
+	 * <p>@return ExpansionResult
+	 */
+	public ExpansionResult expand(MRFGraph mrfGraph, int maxAlpha, int runs) {
+		return expand(mrfGraph, getStartAssignments(mrfGraph, maxAlpha, runs), maxAlpha);
+	}
+
+	/**
+	 * <p>Method 	: expand
+	 * <p>Purpose	: Expands the given graph from every start assignment at
+	 * once, and returns the result of least score, the first one in case of
+	 * equality. The graph is only read by the runs.
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignments
+	 * <p>@param maxAlpha
+	 * <p>@return ExpansionResult
+	 */
+	public ExpansionResult expand(MRFGraph mrfGraph, Vector<Vector<Integer>> startAssignments, int maxAlpha) {
+		ExpansionResult best = null;
+		for (ExpansionResult result : expandAll(mrfGraph, startAssignments, maxAlpha)) {
+			if (best == null || result.getScore() < best.getScore()) {
+				best = result;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * <p>Method 	: expandFused
+	 * <p>Purpose	: Expands the given graph from every start assignment at
+	 * once, and fuses the assignments found by {@link FusionMove}. The runs
+	 * may be cheap ones (see {@link #setMaxSweeps(int)}), the fusion taking
+	 * the best labels of each.
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignments
+	 * <p>@param maxAlpha
+	 * <p>@param fusionMove
+	 * <p>@return Vector<Integer>
+	 */
+	public Vector<Integer> expandFused(MRFGraph mrfGraph, Vector<Vector<Integer>> startAssignments, int maxAlpha, FusionMove fusionMove) {
+		Vector<Vector<Integer>> assignments = new Vector<Vector<Integer>>();
+		for (ExpansionResult result : expandAll(mrfGraph, startAssignments, maxAlpha)) {
+			assignments.add(result.getAssignment());
+		}
+		return fusionMove.fuse(mrfGraph, assignments, maxAlpha);
+	}
+
+	/**
+	 * <p>Method 	: expandAll
+	 * <p>Purpose	: Expands the given graph from every start assignment at
+	 * once, and returns the results in the order of the start assignments
+	 * <p>@param mrfGraph
+	 * <p>@param startAssignments
+	 * <p>@param maxAlpha
+	 * <p>@return Vector<ExpansionResult>
+	 */
+	private Vector<ExpansionResult> expandAll(final MRFGraph mrfGraph, Vector<Vector<Integer>> startAssignments, final int maxAlpha) {
+		Vector<ExpansionResult> expansionResults = new Vector<ExpansionResult>();
+		Vector<Future<ExpansionResult>> results = new Vector<Future<ExpansionResult>>();
+
+		if (m_expander.getThreads() <= 1 || startAssignments.size() <= 1) {
+			for (Vector<Integer> startAssignment : startAssignments) {
+				expansionResults.add(expand(m_expander, mrfGraph, startAssignment, maxAlpha));
+			}
+			return expansionResults;
+		}
+		ExecutorService executor = m_expander.getPool();
+		try {
+			for (final Vector<Integer> startAssignment : startAssignments) {
+				results.add(executor.submit(new Callable<ExpansionResult>() {
+					public ExpansionResult call() {
+						//Every run has its own expander while it runs
+						AlphaExpander expander = m_expander.takeCopy();
+						try {
+							return expand(expander, mrfGraph, startAssignment, maxAlpha);
+						} finally {
+							m_expander.giveBack(expander);
+						}
+					}
+				}));
+			}
+			for (Future<ExpansionResult> future : results) {
+				expansionResults.add(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("alpha expansion interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			for (Future<ExpansionResult> future : results) {
+				future.cancel(true);
+			}
+		}
+		return expansionResults;
+	}
+
+	private ExpansionResult expand(AlphaExpander expander, MRFGraph mrfGraph, Vector<Integer> startAssignment, int maxAlpha) {
+		return expander.expand(mrfGraph, startAssignment, maxAlpha, AlphaExpander.NO_DEADLINE, 0.0, m_maxSweeps, null);
+	}
+}
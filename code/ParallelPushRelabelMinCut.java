@@ -0,0 +1,377 @@
+// ******************************************************* //
+// Parallel Push-Relabel Algorithm (synchronous rounds)
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph, using several threads on the same graph.
+ *
+ * The algorithm used is the push-relabel algorithm done in synchronous
+ * rounds. In a round, the active vertices are split between THREADS threads
+ * which push their excess along the admissible arcs, the heights being
+ * frozen : an arc and its mate can then be used by only one of their ends,
+ * so only the excess received is shared, and it is added atomically. The
+ * vertices which still have an excess are then relabeled from the same
+ * frozen heights, and the new heights are set for the next round. The
+ * heights are recomputed exactly by a breadth first search every
+ * GLOBAL_RELABEL * n relabels.
+ *
+ * As in {@link PushRelabelMinCut} the excess which can not reach t is sent
+ * back to s, so the result is a true max flow and the min cut is the one of
+ * {@link MinCut}, whatever the number of threads. An interrupt of the
+ * calling thread does not stop the computation : it is kept set for the
+ * caller.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class ParallelPushRelabelMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "ParallelPushRelabel";
+
+    /**
+     * The number of threads used.
+     */
+    public int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of relabels between two global relabelings, as a factor
+     * of the number of vertices.
+     */
+    public double GLOBAL_RELABEL = 1.0;
+
+    /**
+     * The executor running the threads. If it is null, a pool of THREADS
+     * threads is created by the first run and kept by this solver for the
+     * next ones, until close().
+     */
+    public ExecutorService EXECUTOR = null;
+
+    // the pool of the runs when no executor is given
+    private ExecutorService pool;
+    private int poolThreads;
+
+    private FlowNetwork net;
+    private int n;
+    private int[] height;
+    private int[] newHeight;
+    private double[] excess;
+    private AtomicLongArray incoming;
+    private int[] active;
+    private int activeCount;
+    private int[] relabels;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public ParallelPushRelabelMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public ParallelPushRelabelMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        ParallelPushRelabelMinCut result = new ParallelPushRelabelMinCut();
+        result.THREADS = THREADS;
+        result.GLOBAL_RELABEL = GLOBAL_RELABEL;
+        result.EXECUTOR = EXECUTOR;
+
+        return copyTo(result);
+    }
+
+    void augment(FlowNetwork fn) {
+        ExecutorService executor = EXECUTOR;
+        int threads = Math.max(1, THREADS);
+        int sinceGlobal = 0;
+
+        net = fn;
+        n = fn.n;
+        height = new int[n];
+        newHeight = new int[n];
+        excess = new double[n];
+        incoming = new AtomicLongArray(n);
+        active = new int[n];
+        relabels = new int[threads];
+
+        // an excess bounded by INFINITY would absorb the finite amounts
+        // pushed to it, and the sums of incoming could overflow
+        fn.lowerInfinite(INFINITY);
+
+        // the arcs leaving s are saturated
+        for (int a = fn.first[fn.source]; a < fn.first[fn.source + 1]; a++) {
+            double delta = fn.residual[a];
+
+            if (delta > 0) {
+                fn.residual[a] = 0.0;
+                fn.residual[fn.mate[a]] += delta;
+                excess[fn.head[a]] += delta;
+                excess[fn.source] -= delta;
+            }
+        }
+
+        if ((executor == null) && (threads > 1)) {
+            executor = getPool(threads);
+        }
+
+        try {
+            globalRelabel();
+
+            while (collectActive() > 0) {
+                int chunks = Math.min(threads, activeCount);
+
+                runRound(executor, chunks, 0);
+                runRound(executor, chunks, 1);
+                runRound(executor, threads, 2);
+
+                for (int i = 0; i < chunks; i++) {
+                    sinceGlobal += relabels[i];
+                    relabels[i] = 0;
+                }
+
+                if (sinceGlobal >= GLOBAL_RELABEL * n) {
+                    globalRelabel();
+                    sinceGlobal = 0;
+                }
+            }
+        } finally {
+            net = null;
+        }
+    }
+
+    // the pool kept by this solver, made again if THREADS has changed ;
+    // its threads are daemons, so a solver which is not closed does not
+    // keep the virtual machine alive
+    private ExecutorService getPool(int threads) {
+        if ((pool != null) && (poolThreads != threads)) {
+            close();
+        }
+
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, NAME);
+                            thread.setDaemon(true);
+
+                            return thread;
+                        }
+                    });
+            poolThreads = threads;
+        }
+
+        return pool;
+    }
+
+    /**
+     * Stops the pool of threads made by the runs when no executor is given.
+     * The solver can still be used, a new pool is then made.
+     */
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private int collectActive() {
+        activeCount = 0;
+
+        for (int v = 0; v < n; v++) {
+            if ((excess[v] > 0) && (height[v] < 2 * n) &&
+                    (v != net.source) && (v != net.sink)) {
+                active[activeCount++] = v;
+            }
+        }
+
+        return activeCount;
+    }
+
+    // runs one step of the round on chunks of the active vertices
+    // (or of all the vertices for the last step)
+    private void runRound(ExecutorService executor, int chunks, final int step) {
+        final int size = (step == 2) ? n : activeCount;
+
+        if ((executor == null) || (chunks <= 1)) {
+            runChunk(step, 0, 0, size);
+
+            return;
+        }
+
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(chunks);
+
+        for (int i = 0; i < chunks; i++) {
+            final int chunk = i;
+            final int from = (int) ((long) size * i / chunks);
+            final int to = (int) ((long) size * (i + 1) / chunks);
+
+            futures.add(executor.submit(new Callable<Object>() {
+                    public Object call() {
+                        runChunk(step, chunk, from, to);
+
+                        return null;
+                    }
+                }));
+        }
+
+        // a round can not be given up nor run again once its pushes are
+        // started : an interrupt is kept for the caller until the round ends
+        boolean interrupted = false;
+
+        try {
+            for (Future<Object> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runChunk(int step, int chunk, int from, int to) {
+        if (step == 0) {
+            for (int i = from; i < to; i++) {
+                push(active[i]);
+            }
+        } else if (step == 1) {
+            for (int i = from; i < to; i++) {
+                relabel(chunk, active[i]);
+            }
+        } else {
+            for (int v = from; v < to; v++) {
+                height[v] = newHeight[v];
+
+                long bits = incoming.get(v);
+
+                if (bits != 0L) {
+                    excess[v] += Double.longBitsToDouble(bits);
+                    incoming.set(v, 0L);
+                }
+            }
+        }
+    }
+
+    private void push(int v) {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+
+        for (int a = net.first[v]; (a < net.first[v + 1]) && (excess[v] > 0); a++) {
+            int w = head[a];
+
+            if ((height[v] == height[w] + 1) && (residual[a] > 0)) {
+                double delta = Math.min(excess[v], residual[a]);
+                residual[a] -= delta;
+                residual[mate[a]] += delta;
+                excess[v] -= delta;
+                receive(w, delta);
+            }
+        }
+    }
+
+    private void receive(int w, double delta) {
+        while (true) {
+            long bits = incoming.get(w);
+            long sum = Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + delta);
+
+            if (incoming.compareAndSet(w, bits, sum)) {
+                return;
+            }
+        }
+    }
+
+    // all the admissible arcs of v are saturated if it still has an excess
+    private void relabel(int chunk, int v) {
+        int[] head = net.head;
+        double[] residual = net.residual;
+        int lowest = 2 * n;
+
+        if (!(excess[v] > 0)) {
+            return;
+        }
+
+        for (int a = net.first[v]; a < net.first[v + 1]; a++) {
+            if ((residual[a] > 0) && (height[head[a]] < lowest)) {
+                lowest = height[head[a]];
+            }
+        }
+
+        newHeight[v] = Math.min(lowest + 1, 2 * n);
+        relabels[chunk]++;
+    }
+
+    // exact heights, by a breadth first search from t and then from s
+    // in the reverse residual network
+    private void globalRelabel() {
+        int[] first = net.first;
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        int[] queue = new int[n];
+
+        Arrays.fill(height, 2 * n);
+        height[net.sink] = 0;
+        height[net.source] = n;
+
+        for (int root = 0; root < 2; root++) {
+            int qhead = 0;
+            int qtail = 0;
+            queue[qtail++] = (root == 0) ? net.sink : net.source;
+
+            while (qhead < qtail) {
+                int u = queue[qhead++];
+
+                for (int a = first[u]; a < first[u + 1]; a++) {
+                    int w = head[a];
+
+                    if ((residual[mate[a]] > 0) && (height[w] == 2 * n)) {
+                        height[w] = height[u] + 1;
+                        queue[qtail++] = w;
+                    }
+                }
+            }
+        }
+
+        System.arraycopy(height, 0, newHeight, 0, n);
+    }
+}
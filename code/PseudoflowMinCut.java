@@ -0,0 +1,538 @@
+// ******************************************************* //
+// Pseudoflow Algorithm (Hochbaum, lowest label)
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides an algorithm to compute the minimum st-cut of a simple directed
+ * graph, without computing the max flow.
+ *
+ * The algorithm used is the pseudoflow algorithm of Hochbaum, lowest label
+ * version. The arcs leaving s and entering t are saturated, the other
+ * vertices are kept in trees whose root holds all the excess of the tree
+ * (strong if positive, weak otherwise) and the strong trees are merged into
+ * weak ones through residual arcs, the labels giving the order. When no
+ * strong tree can be merged any more, the vertices whose label is over the
+ * gap give the source set of a min cut. The second phase of the algorithm,
+ * which would turn the pseudoflow into a feasible flow, is not done, so
+ * maxFlowValue() returns the value of the min cut, which is the one of the
+ * max flow.
+ *
+ * When several min cuts exist this source set may be larger than the one
+ * of {@link MinCut} : some excess can be left in vertices which could give
+ * it back to s. If MINIMAL is set (the default), only this excess is sent
+ * back to s, inside the source set, and the result is the minimal source
+ * set of MinCut. Otherwise the cut has the same value but may differ.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the min cut and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class PseudoflowMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "Pseudoflow";
+
+    private static final int NONE = -1;
+
+    /**
+     * Whether the minimal source set is returned.
+     */
+    public boolean MINIMAL = true;
+
+    private FlowNetwork net;
+    private int n;
+    private double[] excess;
+    private int[] label;
+    private int[] labelCount;
+    private int lowest;
+
+    // the trees : parent, residual arc to the parent and list of children
+    private int[] parent;
+    private int[] parentArc;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] previousSibling;
+    private int[] nextScan;
+    private int[] nextArc;
+
+    // the strong roots by label
+    private int[] bucketFirst;
+    private int[] bucketLast;
+    private int[] bucketNext;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public PseudoflowMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public PseudoflowMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        PseudoflowMinCut result = new PseudoflowMinCut();
+        result.MINIMAL = MINIMAL;
+
+        return copyTo(result);
+    }
+
+    void augment(FlowNetwork fn) {
+        net = fn;
+        initialize();
+
+        for (int root = lowestStrongRoot(); root != NONE;
+                root = lowestStrongRoot()) {
+            processRoot(root);
+        }
+
+        net = null;
+    }
+
+    // the side is not the one of the residual network of the pseudoflow
+    void cutSide(FlowNetwork fn, boolean[] side, int[] queue) {
+        System.arraycopy(cutSide(fn), 0, side, 0, fn.n);
+    }
+
+    boolean[] cutSide(FlowNetwork fn) {
+        boolean[] result = new boolean[fn.n];
+
+        for (int v = 0; v < fn.n; v++) {
+            result[v] = (label[v] >= lowest) && (v != fn.sink);
+        }
+
+        result[fn.source] = true;
+
+        if (!MINIMAL) {
+            return result;
+        }
+
+        // the arcs leaving the source set are saturated and those entering
+        // it are empty, so once its excess is back at s the vertices
+        // reachable from s are the ones of a max flow
+        net = fn;
+        returnExcess(result);
+        net = null;
+
+        return fn.sourceSide();
+    }
+
+    // blocking flows from the vertices with an excess to s, in the residual
+    // network restricted to the source set
+    private void returnExcess(boolean[] inside) {
+        int[] first = net.first;
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        int[] dist = new int[n];
+        int[] current = new int[n];
+        int[] queue = new int[n];
+        int[] path = new int[n];
+
+        while (true) {
+            int qhead = 0;
+            int qtail = 0;
+            boolean reached = false;
+
+            Arrays.fill(dist, -1);
+            dist[net.source] = 0;
+            queue[qtail++] = net.source;
+
+            while (qhead < qtail) {
+                int u = queue[qhead++];
+
+                for (int a = first[u]; a < first[u + 1]; a++) {
+                    int w = head[a];
+
+                    if (inside[w] && (dist[w] < 0) && (residual[mate[a]] > 0)) {
+                        dist[w] = dist[u] + 1;
+                        queue[qtail++] = w;
+                        reached = reached || (excess[w] > 0);
+                    }
+                }
+            }
+
+            if (!reached) {
+                return;
+            }
+
+            System.arraycopy(first, 0, current, 0, n);
+
+            for (int start = 0; start < n; start++) {
+                while ((excess[start] > 0) && (dist[start] > 0)) {
+                    int depth = 0;
+                    int v = start;
+
+                    while ((v != net.source) && (v != NONE)) {
+                        int a;
+
+                        for (a = current[v]; a < first[v + 1]; a++) {
+                            if ((residual[a] > 0) && (dist[head[a]] == dist[v] - 1)) {
+                                break;
+                            }
+                        }
+
+                        current[v] = a;
+
+                        if (a < first[v + 1]) {
+                            path[depth++] = a;
+                            v = head[a];
+                        } else {
+                            // dead end
+                            dist[v] = -1;
+
+                            if (depth == 0) {
+                                v = NONE;
+                            } else {
+                                depth--;
+                                v = head[mate[path[depth]]];
+                                current[v]++;
+                            }
+                        }
+                    }
+
+                    if (v == NONE) {
+                        break;
+                    }
+
+                    double delta = excess[start];
+
+                    for (int i = 0; i < depth; i++) {
+                        delta = Math.min(delta, residual[path[i]]);
+                    }
+
+                    for (int i = 0; i < depth; i++) {
+                        residual[path[i]] -= delta;
+                        residual[mate[path[i]]] += delta;
+                    }
+
+                    excess[start] -= delta;
+                    excess[net.source] += delta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the max flow, which is the value of the min cut :
+     * the flow itself is not computed by this algorithm, so the capacities
+     * of the arcs leaving the source side are summed.
+     *
+     * @return a double
+     */
+    public double maxFlowValue() {
+        double value = 0.0;
+
+        for (int v = 0; v < network.n; v++) {
+            if (!side[v]) {
+                continue;
+            }
+
+            for (int a = network.first[v]; a < network.first[v + 1]; a++) {
+                if (network.forward[a] && !side[network.head[a]]) {
+                    value = value + network.capacity[a];
+                }
+            }
+        }
+
+        return value;
+    }
+
+    private void initialize() {
+        int[] first = net.first;
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+
+        n = net.n;
+        excess = new double[n];
+        label = new int[n];
+        labelCount = new int[n + 1];
+        parent = new int[n];
+        parentArc = new int[n];
+        firstChild = new int[n];
+        nextSibling = new int[n];
+        previousSibling = new int[n];
+        nextScan = new int[n];
+        nextArc = new int[n];
+        bucketFirst = new int[n + 1];
+        bucketLast = new int[n + 1];
+        bucketNext = new int[n];
+
+        Arrays.fill(parent, NONE);
+        Arrays.fill(firstChild, NONE);
+        Arrays.fill(bucketFirst, NONE);
+        Arrays.fill(bucketLast, NONE);
+        System.arraycopy(first, 0, nextArc, 0, n);
+
+        // the capacities bounded by INFINITY would make the excesses
+        // overflow once summed
+        net.lowerInfinite(INFINITY);
+
+        // the arcs leaving s and entering t are saturated
+        for (int v = 0; v < n; v++) {
+            for (int a = first[v]; a < first[v + 1]; a++) {
+                int w = head[a];
+
+                if (((v == net.source) || (w == net.sink)) &&
+                        net.forward[a] && (residual[a] > 0)) {
+                    excess[w] += residual[a];
+                    excess[v] -= residual[a];
+                    residual[mate[a]] += residual[a];
+                    residual[a] = 0.0;
+                }
+            }
+        }
+
+        // s and t never take part in a merger
+        label[net.source] = n;
+        label[net.sink] = n;
+
+        for (int v = 0; v < n; v++) {
+            if ((v == net.source) || (v == net.sink)) {
+                continue;
+            }
+
+            if (excess[v] > 0) {
+                label[v] = 1;
+                addToBucket(v);
+            }
+
+            labelCount[label[v]]++;
+        }
+
+        lowest = 1;
+    }
+
+    private void addToBucket(int v) {
+        // a weak vertex which becomes strong leaves the label 0
+        if (label[v] == 0) {
+            labelCount[0]--;
+            label[v] = 1;
+            labelCount[1]++;
+        }
+
+        int l = label[v];
+
+        lowest = Math.min(lowest, l);
+        bucketNext[v] = NONE;
+
+        if (bucketFirst[l] == NONE) {
+            bucketFirst[l] = v;
+        } else {
+            bucketNext[bucketLast[l]] = v;
+        }
+
+        bucketLast[l] = v;
+    }
+
+    private int lowestStrongRoot() {
+        for (int l = lowest; l < n; l++) {
+            int v = bucketFirst[l];
+
+            if (v != NONE) {
+                lowest = l;
+
+                // gap : no weak vertex can be found below the strong ones
+                if (labelCount[l - 1] == 0) {
+                    return NONE;
+                }
+
+                bucketFirst[l] = bucketNext[v];
+
+                return v;
+            }
+        }
+
+        lowest = n;
+
+        return NONE;
+    }
+
+    private void processRoot(int root) {
+        int v = root;
+
+        nextScan[root] = firstChild[root];
+
+        if (merger(root)) {
+            return;
+        }
+
+        checkChildren(root);
+
+        // depth first search of the tree, the children being relabeled
+        // before their parent
+        while (v != NONE) {
+            while (nextScan[v] != NONE) {
+                int child = nextScan[v];
+                nextScan[v] = nextSibling[child];
+                v = child;
+                nextScan[v] = firstChild[v];
+
+                if (merger(root, v)) {
+                    return;
+                }
+
+                checkChildren(v);
+            }
+
+            v = parent[v];
+
+            if (v != NONE) {
+                checkChildren(v);
+            }
+        }
+
+        addToBucket(root);
+    }
+
+    private boolean merger(int root) {
+        return merger(root, root);
+    }
+
+    // looks for a residual arc from v to a weak vertex of label lowest - 1,
+    // merges the trees and pushes the excess of the root if one is found
+    private boolean merger(int root, int v) {
+        int[] head = net.head;
+        double[] residual = net.residual;
+        int last = net.first[v + 1];
+
+        for (int a = nextArc[v]; a < last; a++) {
+            int w = head[a];
+
+            if ((label[w] == lowest - 1) && (residual[a] > 0)) {
+                nextArc[v] = a;
+                merge(w, v, a);
+                pushExcess(root);
+
+                return true;
+            }
+        }
+
+        nextArc[v] = last;
+
+        return false;
+    }
+
+    // v is relabeled when none of its children has its label
+    private void checkChildren(int v) {
+        for (; nextScan[v] != NONE; nextScan[v] = nextSibling[nextScan[v]]) {
+            if (label[nextScan[v]] == label[v]) {
+                return;
+            }
+        }
+
+        labelCount[label[v]]--;
+        label[v]++;
+        labelCount[label[v]]++;
+        nextArc[v] = net.first[v];
+    }
+
+    private void addChild(int p, int v, int a) {
+        parent[v] = p;
+        parentArc[v] = a;
+        previousSibling[v] = NONE;
+        nextSibling[v] = firstChild[p];
+
+        if (firstChild[p] != NONE) {
+            previousSibling[firstChild[p]] = v;
+        }
+
+        firstChild[p] = v;
+    }
+
+    private void removeChild(int p, int v) {
+        if (previousSibling[v] == NONE) {
+            firstChild[p] = nextSibling[v];
+        } else {
+            nextSibling[previousSibling[v]] = nextSibling[v];
+        }
+
+        if (nextSibling[v] != NONE) {
+            previousSibling[nextSibling[v]] = previousSibling[v];
+        }
+
+        parent[v] = NONE;
+    }
+
+    // the strong tree is hung from v under the weak vertex w
+    private void merge(int w, int v, int a) {
+        int current = v;
+        int newParent = w;
+        int newArc = a;
+
+        while (current != NONE) {
+            int oldParent = parent[current];
+            int oldArc = parentArc[current];
+
+            if (oldParent != NONE) {
+                removeChild(oldParent, current);
+            }
+
+            addChild(newParent, current, newArc);
+            newParent = current;
+            newArc = (oldParent != NONE) ? net.mate[oldArc] : NONE;
+            current = oldParent;
+        }
+    }
+
+    // the excess goes up to the root, the trees are split on the arcs
+    // which can not carry all of it
+    private void pushExcess(int v) {
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        int current = v;
+
+        while ((excess[current] > 0) && (parent[current] != NONE)) {
+            int p = parent[current];
+            int a = parentArc[current];
+
+            if (residual[a] >= excess[current]) {
+                residual[a] -= excess[current];
+                residual[mate[a]] += excess[current];
+                excess[p] += excess[current];
+                excess[current] = 0.0;
+            } else {
+                double delta = residual[a];
+                residual[a] = 0.0;
+                residual[mate[a]] += delta;
+                excess[p] += delta;
+                excess[current] -= delta;
+                removeChild(p, current);
+                addToBucket(current);
+            }
+
+            current = p;
+        }
+
+        if ((parent[current] == NONE) && (excess[current] > 0)) {
+            addToBucket(current);
+        }
+    }
+}
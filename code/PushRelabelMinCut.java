@@ -0,0 +1,254 @@
+// ******************************************************* //
+// Push-Relabel Algorithm (FIFO)
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph
+ *
+ * The algorithm used is the push-relabel algorithm of Goldberg and Tarjan,
+ * the active vertices being discharged in FIFO order. The heights are
+ * recomputed by a breadth first search from t (and from s for the vertices
+ * which can not reach t any more) every GLOBAL_RELABEL * n relabels, and
+ * when a height becomes empty the vertices above it are lifted over n at
+ * once (gap heuristic). The excess which can not reach t is sent back to s,
+ * so that the result is a true max flow and the min cut is the one of
+ * {@link MinCut}.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class PushRelabelMinCut extends AbstractMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "PushRelabel";
+
+    /**
+     * The number of relabels between two global relabelings, as a factor
+     * of the number of vertices.
+     */
+    public double GLOBAL_RELABEL = 1.0;
+
+    private FlowNetwork net;
+    private int n;
+    private int[] height;
+    private double[] excess;
+    private int[] current;
+    private int[] count;
+    private int[] queue;
+    private boolean[] inQueue;
+    private int queueFirst;
+    private int queueCount;
+    private int relabels;
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public PushRelabelMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public PushRelabelMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        PushRelabelMinCut result = new PushRelabelMinCut();
+        result.GLOBAL_RELABEL = GLOBAL_RELABEL;
+
+        return copyTo(result);
+    }
+
+    void augment(FlowNetwork fn) {
+        int[] head = fn.head;
+        int[] mate = fn.mate;
+        double[] residual = fn.residual;
+
+        net = fn;
+        n = fn.n;
+        height = new int[n];
+        excess = new double[n];
+        current = new int[n];
+        count = new int[2 * n + 1];
+        queue = new int[n];
+        inQueue = new boolean[n];
+
+        // an excess bounded by INFINITY would absorb the finite amounts
+        // pushed to it, and the source side would not be minimal
+        fn.lowerInfinite(INFINITY);
+
+        // the arcs leaving s are saturated
+        for (int a = fn.first[fn.source]; a < fn.first[fn.source + 1]; a++) {
+            double delta = residual[a];
+
+            if (delta > 0) {
+                residual[a] = 0.0;
+                residual[mate[a]] += delta;
+                excess[head[a]] += delta;
+                excess[fn.source] -= delta;
+            }
+        }
+
+        globalRelabel();
+
+        while (queueCount > 0) {
+            int v = queue[queueFirst];
+            queueFirst = (queueFirst + 1) % n;
+            queueCount--;
+            inQueue[v] = false;
+            discharge(v);
+
+            if (relabels >= GLOBAL_RELABEL * n) {
+                globalRelabel();
+            }
+        }
+
+        net = null;
+    }
+
+    private void enqueue(int v) {
+        if (!inQueue[v] && (v != net.source) && (v != net.sink)) {
+            inQueue[v] = true;
+            queue[(queueFirst + queueCount) % n] = v;
+            queueCount++;
+        }
+    }
+
+    private void discharge(int v) {
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+        int last = net.first[v + 1];
+
+        while (excess[v] > 0) {
+            if (current[v] == last) {
+                relabel(v);
+
+                if (height[v] >= 2 * n) {
+                    break;
+                }
+
+                continue;
+            }
+
+            int a = current[v];
+            int w = head[a];
+
+            if ((residual[a] > 0) && (height[v] == height[w] + 1)) {
+                double delta = Math.min(excess[v], residual[a]);
+                residual[a] -= delta;
+                residual[mate[a]] += delta;
+                excess[v] -= delta;
+                excess[w] += delta;
+                enqueue(w);
+            } else {
+                current[v]++;
+            }
+        }
+    }
+
+    private void relabel(int v) {
+        int[] head = net.head;
+        double[] residual = net.residual;
+        int old = height[v];
+        int lowest = 2 * n;
+
+        relabels++;
+
+        for (int a = net.first[v]; a < net.first[v + 1]; a++) {
+            if ((residual[a] > 0) && (height[head[a]] < lowest)) {
+                lowest = height[head[a]];
+            }
+        }
+
+        height[v] = Math.min(lowest + 1, 2 * n);
+        current[v] = net.first[v];
+        count[old]--;
+        count[height[v]]++;
+
+        // gap : no vertex can reach t any more from above the old height
+        if ((count[old] == 0) && (old < n)) {
+            for (int u = 0; u < n; u++) {
+                if ((height[u] > old) && (height[u] < n)) {
+                    count[height[u]]--;
+                    height[u] = n + 1;
+                    count[n + 1]++;
+                    current[u] = net.first[u];
+                }
+            }
+        }
+    }
+
+    // exact heights, by a breadth first search from t and then from s
+    // in the reverse residual network
+    private void globalRelabel() {
+        int[] first = net.first;
+        int[] head = net.head;
+        int[] mate = net.mate;
+        double[] residual = net.residual;
+
+        relabels = 0;
+        Arrays.fill(height, 2 * n);
+        Arrays.fill(count, 0);
+        height[net.sink] = 0;
+        height[net.source] = n;
+
+        for (int root = 0; root < 2; root++) {
+            int qhead = 0;
+            int qtail = 0;
+            queue[qtail++] = (root == 0) ? net.sink : net.source;
+
+            while (qhead < qtail) {
+                int u = queue[qhead++];
+
+                for (int a = first[u]; a < first[u + 1]; a++) {
+                    int w = head[a];
+
+                    if ((residual[mate[a]] > 0) && (height[w] == 2 * n)) {
+                        height[w] = height[u] + 1;
+                        queue[qtail++] = w;
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(inQueue, false);
+        queueFirst = 0;
+        queueCount = 0;
+
+        for (int v = 0; v < n; v++) {
+            count[height[v]]++;
+            current[v] = first[v];
+
+            if ((excess[v] > 0) && (height[v] < 2 * n)) {
+                enqueue(v);
+            }
+        }
+    }
+}
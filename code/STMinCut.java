@@ -8,6 +8,7 @@ package mascoptLib.algos.graph;
 // MascoptLib
 import mascoptLib.graphs.*;
 import mascoptLib.algos.digraph.MinCut;
+import mascoptLib.algos.digraph.MaxFlowSolver;
 import mascoptLib.abstractGraph.MascoptFixedSet;
 
 // Java
@@ -19,7 +20,7 @@ import java.util.*;
  * 
  * We consider the digraph associated to the graph given and we
  * apply the algorithm of Edmonds Karps (which is implemented in
- * the class MinCut).
+ * the class MinCut), or the max-flow algorithm given by SOLVER.
  * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
  * It is necessary to define the value of the variable INFINITY (which equals 999999) 
  * if some capacity is greater than the default value.
@@ -44,10 +45,18 @@ public class STMinCut {
     public String CAPACITY = "capacity";
 
     /** 
-     * A constant for the "infinity" number.
+     * A constant for the "infinity" number, the bound on the capacities
+     * for MinCut as for SOLVER.
      */
     public double INFINITY = Double.MAX_VALUE;
 
+    /** 
+     * The max-flow algorithm used on the digraph, null for Edmonds-Karp
+     * (class MinCut). A solver keeping a state between its cuts may be
+     * given to several STMinCut in turn.
+     */
+    public MaxFlowSolver SOLVER = null;
+
     /** 
      * Build the algorithm on a graph.
      * s and t are the two vertices to consider for the cut.
@@ -98,15 +107,43 @@ public class STMinCut {
      */
     public VertexSet vertexSetCutMin() {
         DiGraph diG = this.orientation();
-        MinCut coupeGd = new MinCut(diG, s_, t_);
-        coupeGd.CAPACITY = CAPACITY;
-        coupeGd.INFINITY = INFINITY;
-        coupeGd.run();
-        nodecutmin = coupeGd.vertexSetCutMin();
+
+        if (SOLVER != null) {
+            nodecutmin = SOLVER.vertexSetCutMin(diG, s_, t_, CAPACITY, INFINITY);
+        } else {
+            MinCut coupeGd = new MinCut(diG, s_, t_);
+            coupeGd.CAPACITY = CAPACITY;
+            coupeGd.INFINITY = INFINITY;
+            coupeGd.run();
+            nodecutmin = coupeGd.vertexSetCutMin();
+        }
 
         return nodecutmin;
     }
 
+    /** 
+     * Returns the side of the min cut of some vertices, without building
+     * the set of edges of the cut.
+     * 
+     * @param vertices the vertices to consider (an element may be null)
+     * @return a bit set, the bit i being set if vertices[i] is on the side of s
+     */
+    public BitSet sourceSide(Vertex[] vertices) {
+        BitSet side = new BitSet(vertices.length);
+
+        if (nodecutmin == null) {
+            this.vertexSetCutMin();
+        }
+
+        for (int i = 0; i < vertices.length; i++) {
+            if ((vertices[i] != null) && nodecutmin.contains(vertices[i])) {
+                side.set(i);
+            }
+        }
+
+        return side;
+    }
+
     /** 
      * Returns the edges of the min cut
      * 
@@ -118,7 +155,7 @@ public class STMinCut {
         Edge ecurrent;
         VertexSet nodec;
 
-        if (nodecutmin.isEmpty()) {
+        if ((nodecutmin == null) || nodecutmin.isEmpty()) {
             nodec = this.vertexSetCutMin();
         }
 
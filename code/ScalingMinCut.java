@@ -0,0 +1,94 @@
+// ******************************************************* //
+// Edmonds-Karp Algorithm with capacity scaling
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+
+
+/**
+ * Provides an algorithm to compute the maximum st-flow and so minimum st-cut of
+ * a simple directed graph whose capacities have very different magnitudes.
+ *
+ * The algorithm is the one of {@link CSRMinCut} with capacity scaling : in
+ * a phase, only the arcs whose residual capacity is at least delta are used,
+ * so that every augmentation carries at least delta. The first delta is the
+ * greatest power of 2 not greater than the greatest capacity lower than
+ * INFINITY (the arcs of capacity INFINITY are used by every phase) and it is
+ * halved at each phase, until it is smaller than the smallest capacity. A
+ * last phase with all the residual arcs ends the max flow, which is the
+ * same as the one of MinCut, so is the min cut. There are at most 2m
+ * augmentations by phase, instead of the many small augmentations of
+ * Edmonds-Karp when the capacities (such as the energies -log(potential))
+ * spread over several orders of magnitude.
+ *
+ * The name of the capacities is "capacity" but can be change (CAPACITY="name_given")
+ * The void "run" compute the max flow and must always be done to obtain the results.
+ *
+ * Entries : a digraph, two vertices s and t.
+ * Results : vertexSetCutMin() returns the set of vertices which give the minimal cut
+ *           arcSetCutMin() returns the set of arcs which belong to the minimal cut
+ *           minCutValue() returns the value of the minimal cut
+ */
+public class ScalingMinCut extends CSRMinCut {
+
+    /**
+     * The name of the algorithm.
+     */
+    public static final String NAME = "CapacityScaling";
+
+    /**
+     * Constructor for the min cut.
+     *
+     * @param g the graph to consider
+     * @param s the first vertex
+     * @param t the second vertex
+     */
+    public ScalingMinCut(DiGraph g, Vertex s, Vertex t) {
+        super(g, s, t);
+    }
+
+    /**
+     * Constructor for a solver, the graph is given to each cut.
+     */
+    public ScalingMinCut() {
+    }
+
+    public String getName() {
+        return NAME;
+    }
+
+    public MaxFlowSolver copy() {
+        return copyTo(new ScalingMinCut());
+    }
+
+    void augment(FlowNetwork fn) {
+        double largest = 0.0;
+        double smallest = Double.MAX_VALUE;
+
+        // the arcs bounded by INFINITY (infinite energies) would start the
+        // phases at 2^1023 : they are used by every phase anyway
+        for (int a = 0; a < fn.m; a++) {
+            if ((fn.residual[a] > 0) && (fn.residual[a] < INFINITY)) {
+                largest = Math.max(largest, fn.residual[a]);
+                smallest = Math.min(smallest, fn.residual[a]);
+            }
+        }
+
+        prepare(fn);
+
+        if (largest > 0) {
+            for (double delta = Math.scalb(1.0, Math.getExponent(largest));
+                    delta >= smallest; delta = delta / 2) {
+                saturate(delta);
+            }
+        }
+
+        saturate(Double.MIN_VALUE);
+        net = null;
+    }
+}
@@ -0,0 +1,103 @@
+package in.ac.iitb.cfilt.context.helper;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.Vector;
+
+import org.junit.Test;
+
+/**
+ * <p>Class	: AlphaExpanderTest
+ * <p>Purpose	: This class checks that the paths of alpha expansion find the
+ * same labels on a fixed graph : the expansion of a Vector assignment, the
+ * expansion of the int labels of a {@link CompiledMRF}, and the expansion
+ * scheduled by a {@link LabelScheduler} in the FIXED order.
+ */
+public class AlphaExpanderTest {
+
+	/**
+	 * This field stores the number of labels of the graph
+	 */
+	private static final int LABELS = 4;
+
+	/**
+	 * This field stores the number of nodes of a side of the grid
+	 */
+	private static final int SIDE = 5;
+
+	/**
+	 * <p>Method 	: pathsAgree
+	 * <p>Purpose	: Expands the same start assignment by the three paths
+	 */
+	@Test
+	public void pathsAgree() {
+		MRFGraph mrfGraph = getGrid();
+		Vector<Integer> startAssignment = new Vector<Integer>();
+		int[] labels = new int[SIDE * SIDE];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = i % LABELS;
+			startAssignment.add(labels[i]);
+		}
+
+		Vector<Integer> swept = new AlphaExpander().expand(mrfGraph, startAssignment, LABELS);
+
+		double score = new AlphaExpander().expand(new CompiledMRF(mrfGraph), labels, LABELS);
+
+		AlphaExpander scheduler = new AlphaExpander();
+		scheduler.setLabelOrder(LabelScheduler.Order.FIXED);
+		Vector<Integer> scheduled = scheduler.expand(mrfGraph, startAssignment, LABELS);
+
+		assertArrayEquals(AlphaExpander.getLabels(swept), labels);
+		assertEquals(swept, scheduled);
+		assertEquals(AlphaExpander.getScore(mrfGraph, swept), score, 1e-9);
+	}
+
+	/**
+	 * <p>Method 	: getGrid
+	 * <p>Purpose	: Builds a grid of nodes whose potentials are drawn from a
+	 * fixed seed, the edges favouring equal labels on both ends
+	 * <p>@return MRFGraph
+	 */
+	private static MRFGraph getGrid() {
+		Random random = new Random(17);
+		MRFGraph mrfGraph = new MRFGraph();
+		MRFNode[] nodes = new MRFNode[SIDE * SIDE];
+		for (int i = 0; i < nodes.length; i++) {
+			Vector<Double> potentials = new Vector<Double>();
+			for (int label = 0; label < LABELS; label++) {
+				potentials.add(0.01 + random.nextDouble());
+			}
+			nodes[i] = new MRFNode(i, potentials, null);
+			mrfGraph.addVertex(nodes[i]);
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			if (i % SIDE < SIDE - 1) {
+				mrfGraph.addEdge(new MRFEdge(nodes[i], nodes[i + 1], getPotentials(random)));
+			}
+			if (i + SIDE < nodes.length) {
+				mrfGraph.addEdge(new MRFEdge(nodes[i], nodes[i + SIDE], getPotentials(random)));
+			}
+		}
+		return mrfGraph;
+	}
+
+	/**
+	 * <p>Method 	: getPotentials
+	 * <p>Purpose	: Returns the potentials of an edge, 1 for equal labels and
+	 * less for different ones
+	 * <p>@param random
+	 * <p>@return Vector<Double>
+	 */
+	private static Vector<Double> getPotentials(Random random) {
+		Vector<Double> potentials = new Vector<Double>();
+		double weight = 0.1 + random.nextDouble();
+		for (int first = 0; first < LABELS; first++) {
+			for (int second = 0; second < LABELS; second++) {
+				potentials.add(first == second ? 1.0 : Math.exp(-weight));
+			}
+		}
+		return potentials;
+	}
+}
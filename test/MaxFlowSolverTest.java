@@ -0,0 +1,226 @@
+// ******************************************************* //
+// Agreement of the max-flow algorithms on random
+// s-t networks
+//
+// ******************************************************* //
+
+package in.ac.iitb.cfilt.context.mascoptLib.algos.digraph;
+
+
+// les imports
+import in.ac.iitb.cfilt.context.mascoptLib.graphs.*;
+import java.util.*;
+import java.util.concurrent.*;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+/**
+ * Checks that the max-flow algorithms find a min cut of random s-t networks
+ * whose capacities may be 0, negative, undefined (NaN) or INFINITY.
+ *
+ * The min cut value is found by trying every source side, with the
+ * capacities bounded as FlowNetwork does. The cut given by every solver
+ * declared in META-INF/services (MinCut and CSRMinCut among them) must have
+ * this value. When the capacities are integers the max flow is exact, so
+ * the source side must also be the smallest one, the one of MinCut.
+ *
+ * Entries : the number of networks and their largest number of vertices.
+ * Results : an assertion fails for the first solver which does not agree
+ */
+public class MaxFlowSolverTest {
+    private static final int NETWORKS = 400;
+    private static final int VERTICES = 8;
+    private static final double INFINITY = Double.MAX_VALUE;
+    private static final String CAPACITY = "capacity";
+
+    // the network to cut, s being the vertex 0 and t the vertex 1
+    private DiGraph graph;
+    private Vertex[] vertices;
+    private int n;
+    private int arcCount;
+    private int[] tails;
+    private int[] heads;
+    private double[] caps;
+
+    /**
+     * Cuts networks of real capacities.
+     */
+    @Test
+    public void realCapacities() {
+        agree(new Random(1), false);
+    }
+
+    /**
+     * Cuts networks of integer capacities.
+     */
+    @Test
+    public void integerCapacities() {
+        agree(new Random(2), true);
+    }
+
+    private void agree(Random random, boolean integers) {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int k = 0; k < NETWORKS; k++) {
+                generate(random, integers);
+
+                boolean[] smallest = new boolean[n];
+                double best = bruteForce(smallest);
+
+                for (MaxFlowSolver solver : solvers(executor)) {
+                    VertexSet set = solver.vertexSetCutMin(graph, vertices[0],
+                            vertices[1], CAPACITY);
+
+                    check(solver.getName() + " on network " + k, side(set),
+                        best, smallest, integers);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void check(String name, boolean[] side, double best,
+        boolean[] smallest, boolean integers) {
+        assertTrue(name, side[0] && !side[1]);
+
+        if (best >= INFINITY) {
+            assertTrue(name, cutValue(side) >= INFINITY);
+        } else {
+            assertEquals(name, best, cutValue(side), 1e-9 * (1.0 + best));
+
+            if (integers) {
+                assertArrayEquals(name, smallest, side);
+            }
+        }
+    }
+
+    // the declared solvers, the parallel one being given threads
+    private static List<MaxFlowSolver> solvers(ExecutorService executor) {
+        List<MaxFlowSolver> result = new ArrayList<MaxFlowSolver>();
+
+        for (MaxFlowSolver solver : ServiceLoader.load(MaxFlowSolver.class)) {
+            if (solver instanceof ParallelPushRelabelMinCut) {
+                ((ParallelPushRelabelMinCut) solver).THREADS = 2;
+                ((ParallelPushRelabelMinCut) solver).EXECUTOR = executor;
+            }
+
+            result.add(solver);
+        }
+
+        assertFalse(result.isEmpty());
+
+        return result;
+    }
+
+    // a random simple digraph, arcs entering s and leaving t included
+    private void generate(Random random, boolean integers) {
+        n = 2 + random.nextInt(VERTICES - 1);
+        arcCount = 0;
+        tails = new int[n * (n - 1)];
+        heads = new int[n * (n - 1)];
+        caps = new double[n * (n - 1)];
+        vertices = new Vertex[n];
+
+        VertexSet vertexSet = new VertexSet();
+        ArcSet arcSet = new ArcSet(vertexSet);
+
+        for (int v = 0; v < n; v++) {
+            vertices[v] = new Vertex();
+            vertexSet.add(vertices[v]);
+        }
+
+        for (int v = 0; v < n; v++) {
+            for (int w = 0; w < n; w++) {
+                if ((v != w) && (random.nextDouble() < 0.4)) {
+                    Arc arc = new Arc(vertices[v], vertices[w]);
+
+                    tails[arcCount] = v;
+                    heads[arcCount] = w;
+                    caps[arcCount] = capacity(random, integers);
+                    arc.setDouValue(CAPACITY, caps[arcCount++]);
+                    arcSet.add(arc);
+                }
+            }
+        }
+
+        graph = new DiGraph(vertexSet, arcSet);
+    }
+
+    private static double capacity(Random random, boolean integers) {
+        switch (random.nextInt(12)) {
+        case 0:
+            return 0.0;
+
+        case 1:
+            return -1.0 - random.nextInt(5);
+
+        case 2:
+            return Double.NaN;
+
+        case 3:
+            return INFINITY;
+
+        case 4:
+            return Double.POSITIVE_INFINITY;
+
+        default:
+            return integers ? (1 + random.nextInt(9)) : (10 * random.nextDouble());
+        }
+    }
+
+    private boolean[] side(VertexSet set) {
+        boolean[] side = new boolean[n];
+
+        for (int v = 0; v < n; v++) {
+            side[v] = set.contains(vertices[v]);
+        }
+
+        return side;
+    }
+
+    private double cutValue(boolean[] side) {
+        double value = 0.0;
+
+        for (int k = 0; k < arcCount; k++) {
+            if (side[tails[k]] && !side[heads[k]]) {
+                value = value + FlowNetwork.bound(caps[k], INFINITY);
+            }
+        }
+
+        return value;
+    }
+
+    // the value of a min cut, smallest being set to the smallest source
+    // side of a min cut (the intersection of all of them)
+    private double bruteForce(boolean[] smallest) {
+        boolean[] side = new boolean[n];
+        double best = Double.POSITIVE_INFINITY;
+        int fewest = n + 1;
+
+        for (int set = 0; set < (1 << (n - 2)); set++) {
+            int size = 1;
+
+            side[0] = true;
+            side[1] = false;
+
+            for (int v = 2; v < n; v++) {
+                side[v] = ((set >> (v - 2)) & 1) != 0;
+                size = size + (side[v] ? 1 : 0);
+            }
+
+            double value = cutValue(side);
+
+            if ((value < best) || ((value == best) && (size < fewest))) {
+                best = value;
+                fewest = size;
+                System.arraycopy(side, 0, smallest, 0, n);
+            }
+        }
+
+        return best;
+    }
+}